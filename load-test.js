@@ -1,11 +1,18 @@
 import http from 'k6/http';
 import {check} from 'k6';
+import {SharedArray} from 'k6/data';
 
 const BASE_URL = 'http://localhost:8080';
 const SCENARIO = 'stress';
 const TARGET_RPS = '10000';
 const DURATION = '2m';
 
+// Corpus of requests (one JSON request per line, e.g. from the application's generate command) sent in random
+// order; without REQUESTS_FILE every iteration sends the request below
+const REQUESTS = __ENV.REQUESTS_FILE
+  ? new SharedArray('requests', () => open(__ENV.REQUESTS_FILE).split('\n').filter((line) => line.trim() !== ''))
+  : null;
+
 export const options = {
   scenarios: {
     stress: {
@@ -39,6 +46,9 @@ export function setup() {
   console.log(`Target RPS: ${TARGET_RPS}`);
   console.log(`Base URL: ${BASE_URL}`);
   console.log(`Duration: ${DURATION}`);
+  if (REQUESTS) {
+    console.log(`Requests: ${REQUESTS.length} from ${__ENV.REQUESTS_FILE}`);
+  }
 
   return {startTime: new Date()};
 }
@@ -87,7 +97,7 @@ export function processCalculation() {
     }
   });
 
-  const response = http.post(`${BASE_URL}/calculation-requests`, `{
+  const body = REQUESTS ? REQUESTS[Math.floor(Math.random() * REQUESTS.length)] : `{
   "tenant_id": "tenant-001",
   "calculation_instructions": {
     "mutations": [
@@ -249,7 +259,9 @@ export function processCalculation() {
     ]
   }
 }
-`, {
+`;
+
+  const response = http.post(`${BASE_URL}/calculation-requests`, body, {
     headers: {
       'Content-Type': 'application/json',
       'Accept': 'application/json',
@@ -17,6 +17,8 @@ NC='\033[0m' # No Color
 BASE_URL="${BASE_URL:-http://localhost:8080}"
 SCRIPT_DIR="$(cd "$(dirname "${BASH_SOURCE[0]}")" && pwd)"
 LOAD_TEST_FILE="${SCRIPT_DIR}/load-test.js"
+APP_JAR="${SCRIPT_DIR}/target/quarkus-app/quarkus-run.jar"
+K6_ENV=()
 
 # Print banner
 print_banner() {
@@ -39,6 +41,8 @@ ${BLUE}Commands:${NC}
     extended    Run an extended 5-minute test
     stress      Run a stress test with high concurrency
     report      Run test and generate HTML report
+    generate    Write a request corpus with the application's generator:
+                generate FILE COUNT [name=value ...] (see WorkloadGenerator.Profile)
     help        Show this help message
 
 ${BLUE}Options:${NC}
@@ -46,12 +50,15 @@ ${BLUE}Options:${NC}
     --vus NUM          Number of virtual users (overrides scenario)
     --duration TIME    Test duration (e.g., 30s, 5m)
     --out FORMAT       Output format (html, json, influxdb)
+    --requests FILE    Send the requests of a corpus written by generate
 
 ${BLUE}Examples:${NC}
     ./run-load-test.sh quick
     ./run-load-test.sh standard --url http://app.example.com:8080
     ./run-load-test.sh report
     ./run-load-test.sh stress --vus 500
+    ./run-load-test.sh generate corpus.jsonl 10000 policies-max=500 error-rate=0.1
+    ./run-load-test.sh standard --requests corpus.jsonl
 
 EOF
 }
@@ -89,7 +96,7 @@ check_app_reachable() {
 run_quick_test() {
     echo -e "${BLUE}Running quick 30-second test...${NC}"
     k6 run \
-        --env BASE_URL="${BASE_URL}" \
+        --env BASE_URL="${BASE_URL}" "${K6_ENV[@]}" \
         --vus 10 \
         --duration 30s \
         "${LOAD_TEST_FILE}"
@@ -99,7 +106,7 @@ run_quick_test() {
 run_standard_test() {
     echo -e "${BLUE}Running standard 2-minute test...${NC}"
     k6 run \
-        --env BASE_URL="${BASE_URL}" \
+        --env BASE_URL="${BASE_URL}" "${K6_ENV[@]}" \
         "${LOAD_TEST_FILE}"
 }
 
@@ -113,7 +120,7 @@ run_extended_test() {
         "${LOAD_TEST_FILE}" > "${temp_file}"
 
     k6 run \
-        --env BASE_URL="${BASE_URL}" \
+        --env BASE_URL="${BASE_URL}" "${K6_ENV[@]}" \
         "${temp_file}"
 
     rm "${temp_file}"
@@ -123,7 +130,7 @@ run_extended_test() {
 run_stress_test() {
     echo -e "${BLUE}Running stress test (500 VUs)...${NC}"
     k6 run \
-        --env BASE_URL="${BASE_URL}" \
+        --env BASE_URL="${BASE_URL}" "${K6_ENV[@]}" \
         --vus 500 \
         --duration 2m \
         "${LOAD_TEST_FILE}"
@@ -137,7 +144,7 @@ run_with_report() {
     echo -e "${BLUE}Running test and generating report: ${report_file}${NC}"
 
     k6 run \
-        --env BASE_URL="${BASE_URL}" \
+        --env BASE_URL="${BASE_URL}" "${K6_ENV[@]}" \
         --out=html="${report_file}" \
         "${LOAD_TEST_FILE}"
 
@@ -153,6 +160,16 @@ run_with_report() {
     fi
 }
 
+# Generate a request corpus
+run_generate() {
+    if [[ ! -f "${APP_JAR}" ]]; then
+        echo -e "${RED}Error: ${APP_JAR} not found, build it with ./mvnw package -DskipTests${NC}"
+        exit 1
+    fi
+    echo -e "${BLUE}Generating request corpus: $*${NC}"
+    "${JAVA_HOME:+${JAVA_HOME}/bin/}java" -Dquarkus.http.host-enabled=false -jar "${APP_JAR}" generate "$@"
+}
+
 # Parse command line arguments
 parse_args() {
     while [[ $# -gt 0 ]]; do
@@ -173,6 +190,10 @@ parse_args() {
                 OUTPUT_FORMAT="$2"
                 shift 2
                 ;;
+            --requests)
+                K6_ENV=(--env REQUESTS_FILE="$(cd "$(dirname "$2")" && pwd)/$(basename "$2")")
+                shift 2
+                ;;
             *)
                 shift
                 ;;
@@ -187,6 +208,11 @@ main() {
     # Parse command
     COMMAND="${1:-standard}"
 
+    if [[ "${COMMAND}" == "generate" ]]; then
+        run_generate "${@:2}"
+        exit 0
+    fi
+
     # Parse remaining arguments
     parse_args "${@:2}"
 
@@ -0,0 +1,57 @@
+package flyt.inschool.benchmark;
+
+import flyt.inschool.api.dto.CalculationMutation;
+import flyt.inschool.mutation.WorkingSituation;
+import flyt.inschool.validation.ValidationContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fills a new dossier with {@code policyCount} policies per operation, so the cost of a single {@code add_policy}
+ * is the score divided by {@code policyCount}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AddPolicyBenchmark {
+
+    @Param({"1", "10", "100", "1000", "10000"})
+    int policyCount;
+
+    private Engine engine;
+    private CalculationMutation createDossier;
+    private List<CalculationMutation> addPolicies;
+
+    @Setup
+    public void setup() {
+        engine = new Engine();
+        createDossier = engine.readMutation(Requests.createDossier());
+        addPolicies = Requests.addPolicies(policyCount, 42).stream().map(engine::readMutation).toList();
+    }
+
+    @Benchmark
+    public WorkingSituation addPolicies() {
+        WorkingSituation situation = new WorkingSituation();
+        ValidationContext validationContext = new ValidationContext();
+        Engine.apply(engine.createDossier, situation, createDossier, validationContext);
+        for (CalculationMutation addPolicy : addPolicies) {
+            Engine.apply(engine.addPolicy, situation, addPolicy, validationContext);
+        }
+        return situation;
+    }
+}
@@ -0,0 +1,73 @@
+package flyt.inschool.benchmark;
+
+import flyt.inschool.api.dto.CalculationMutation;
+import flyt.inschool.mutation.MutationResult;
+import flyt.inschool.mutation.WorkingSituation;
+import flyt.inschool.validation.ValidationContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One {@code apply_indexation} on a dossier of {@code policyCount} policies. Each invocation raises and then
+ * lowers the matched salaries by the same factor, so they stay in range however long the run.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ApplyIndexationBenchmark {
+
+    private static final double PERCENTAGE = 0.03;
+
+    @Param({"1", "10", "100", "1000", "10000"})
+    int policyCount;
+
+    @Param({"none", "scheme", "effective_before"})
+    String filter;
+
+    @Param({"scalar", "vector"})
+    String kernel;
+
+    private Engine engine;
+    private WorkingSituation situation;
+    private CalculationMutation raise;
+    private CalculationMutation lower;
+
+    @Setup
+    public void setup() {
+        engine = new Engine(Engine.kernel(kernel));
+        List<String> mutations = new ArrayList<>();
+        mutations.add(Requests.createDossier());
+        mutations.addAll(Requests.addPolicies(policyCount, 42));
+        situation = engine.situation(mutations.stream().map(engine::readMutation).toList());
+
+        String schemeId = filter.equals("scheme") ? "SCHEME-B" : null;
+        String effectiveBefore = filter.equals("effective_before") ? "2005-01-01" : null;
+        raise = engine.readMutation(Requests.applyIndexation(1, PERCENTAGE, schemeId, effectiveBefore));
+        lower = engine.readMutation(Requests.applyIndexation(2, 1 / (1 + PERCENTAGE) - 1, schemeId, effectiveBefore));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(2)
+    public MutationResult applyIndexation() {
+        ValidationContext validationContext = new ValidationContext();
+        Engine.apply(engine.applyIndexation, situation, raise, validationContext);
+        return Engine.apply(engine.applyIndexation, situation, lower, validationContext);
+    }
+}
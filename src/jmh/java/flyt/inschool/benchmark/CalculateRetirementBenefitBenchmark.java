@@ -0,0 +1,60 @@
+package flyt.inschool.benchmark;
+
+import flyt.inschool.api.dto.CalculationMutation;
+import flyt.inschool.mutation.MutationResult;
+import flyt.inschool.mutation.WorkingSituation;
+import flyt.inschool.validation.ValidationContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One {@code calculate_retirement_benefit} on a dossier of {@code policyCount} policies; recalculating a retired
+ * dossier yields the same pensions, so every invocation does the same work.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CalculateRetirementBenefitBenchmark {
+
+    @Param({"1", "10", "100", "1000", "10000"})
+    int policyCount;
+
+    @Param({"scalar", "vector"})
+    String kernel;
+
+    private Engine engine;
+    private WorkingSituation situation;
+    private CalculationMutation calculateRetirementBenefit;
+
+    @Setup
+    public void setup() {
+        engine = new Engine(Engine.kernel(kernel));
+        List<String> mutations = new ArrayList<>();
+        mutations.add(Requests.createDossier());
+        mutations.addAll(Requests.addPolicies(policyCount, 42));
+        situation = engine.situation(mutations.stream().map(engine::readMutation).toList());
+        calculateRetirementBenefit = engine.readMutation(Requests.calculateRetirementBenefit(1));
+    }
+
+    @Benchmark
+    public MutationResult calculateRetirementBenefit() {
+        return Engine.apply(engine.calculateRetirementBenefit, situation, calculateRetirementBenefit,
+            new ValidationContext());
+    }
+}
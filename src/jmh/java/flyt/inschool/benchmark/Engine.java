@@ -0,0 +1,143 @@
+package flyt.inschool.benchmark;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import flyt.inschool.api.dto.CalculationMutation;
+import flyt.inschool.api.dto.CalculationRequest;
+import flyt.inschool.api.dto.CalculationResponse;
+import flyt.inschool.api.json.CalculationMutationModule;
+import flyt.inschool.api.json.CalculationResponseWriter;
+import flyt.inschool.metrics.CalculationMetrics;
+import flyt.inschool.mutation.ChangeLog;
+import flyt.inschool.mutation.MutationContext;
+import flyt.inschool.mutation.MutationExecutor;
+import flyt.inschool.mutation.MutationProcessor;
+import flyt.inschool.mutation.MutationRegistry;
+import flyt.inschool.mutation.MutationResult;
+import flyt.inschool.mutation.PrefixCache;
+import flyt.inschool.mutation.WorkingSituation;
+import flyt.inschool.mutation.impl.AddPolicyProcessor;
+import flyt.inschool.mutation.impl.ApplyIndexationProcessor;
+import flyt.inschool.mutation.impl.CalculateRetirementBenefitProcessor;
+import flyt.inschool.mutation.impl.CreateDossierProcessor;
+import flyt.inschool.mutation.impl.ProjectFutureBenefitsProcessor;
+import flyt.inschool.mutation.kernel.PolicyKernel;
+import flyt.inschool.mutation.kernel.ScalarPolicyKernel;
+import flyt.inschool.mutation.kernel.VectorPolicyKernel;
+import flyt.inschool.registry.SchemeLookups;
+import flyt.inschool.registry.SchemeRegistryClient;
+import flyt.inschool.service.CalculationService;
+import flyt.inschool.service.ResultCache;
+import flyt.inschool.validation.ValidationContext;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/**
+ * The calculation beans wired by hand, as the application wires them with its shipped configuration: the given
+ * kernel (scalar by default), no scheme registry, no result or prefix cache, metrics recorded into an in-memory
+ * registry. Benchmarks run outside the Quarkus container; the registry client and the caches are left
+ * uninitialized, which is how they behave when not configured.
+ */
+final class Engine {
+
+    final ObjectMapper objectMapper = new ObjectMapper()
+        .findAndRegisterModules()
+        .setSerializationInclusion(JsonInclude.Include.NON_NULL)
+        .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+        .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    final CreateDossierProcessor createDossier = new CreateDossierProcessor();
+    final AddPolicyProcessor addPolicy = new AddPolicyProcessor();
+    final ApplyIndexationProcessor applyIndexation;
+    final CalculateRetirementBenefitProcessor calculateRetirementBenefit;
+    final ProjectFutureBenefitsProcessor projectFutureBenefits;
+
+    final MutationRegistry registry = new MutationRegistry();
+    final MutationExecutor executor;
+    final CalculationService calculationService;
+    final CalculationResponseWriter responseWriter;
+
+    Engine() {
+        this(new ScalarPolicyKernel());
+    }
+
+    Engine(PolicyKernel kernel) {
+        CalculationMetrics metrics = new CalculationMetrics(new SimpleMeterRegistry());
+        SchemeRegistryClient schemeRegistry = new SchemeRegistryClient();
+
+        applyIndexation = new ApplyIndexationProcessor(kernel);
+        calculateRetirementBenefit = new CalculateRetirementBenefitProcessor(kernel, schemeRegistry, 8192);
+        projectFutureBenefits = new ProjectFutureBenefitsProcessor(kernel, schemeRegistry, 1_000_000L);
+        registry.init(createDossier, addPolicy, applyIndexation, calculateRetirementBenefit, projectFutureBenefits);
+
+        executor = new MutationExecutor(registry, new PrefixCache(), metrics);
+        calculationService = new CalculationService(executor, registry, schemeRegistry, new ResultCache(), metrics);
+
+        new CalculationMutationModule(registry).customize(objectMapper);
+        responseWriter = new CalculationResponseWriter(objectMapper, metrics);
+    }
+
+    /**
+     * The kernel named by a benchmark's {@code kernel} parameter: {@code scalar} or {@code vector}.
+     */
+    static PolicyKernel kernel(String name) {
+        return switch (name) {
+            case "scalar" -> new ScalarPolicyKernel();
+            case "vector" -> new VectorPolicyKernel();
+            default -> throw new IllegalArgumentException("Unknown kernel: " + name);
+        };
+    }
+
+    CalculationRequest readRequest(byte[] json) {
+        try {
+            return objectMapper.readValue(json, CalculationRequest.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    CalculationMutation readMutation(String json) {
+        try {
+            return objectMapper.readValue(json, CalculationMutation.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    void writeResponse(CalculationResponse response, OutputStream out) {
+        try {
+            responseWriter.writeTo(response, CalculationResponse.class, CalculationResponse.class, null, null, null,
+                out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Runs {@code mutations} straight through their processors, without changes, as the setup of a benchmark.
+     */
+    WorkingSituation situation(List<CalculationMutation> mutations) {
+        WorkingSituation situation = new WorkingSituation();
+        ValidationContext validationContext = new ValidationContext();
+        for (int i = 0; i < mutations.size(); i++) {
+            if (apply(registry.get(mutations.get(i).getMutationDefinitionName()), situation, mutations.get(i),
+                validationContext) != MutationResult.APPLIED) {
+                throw new IllegalStateException("Setup mutation " + i + " did not apply: "
+                    + validationContext.getMessages());
+            }
+        }
+        return situation;
+    }
+
+    static MutationResult apply(MutationProcessor processor, WorkingSituation situation, CalculationMutation mutation,
+                                ValidationContext validationContext) {
+        return processor.process(new MutationContext(situation, mutation, validationContext, 0, ChangeLog.DISABLED,
+            SchemeLookups.NONE));
+    }
+}
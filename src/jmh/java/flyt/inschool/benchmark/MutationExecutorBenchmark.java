@@ -0,0 +1,55 @@
+package flyt.inschool.benchmark;
+
+import flyt.inschool.api.dto.CalculationMutation;
+import flyt.inschool.mutation.ExecutionResult;
+import flyt.inschool.registry.SchemeLookups;
+import flyt.inschool.validation.ValidationContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code MutationExecutor.execute} over a dossier's whole life (see {@link Requests#lifecycle}), with and without
+ * the changes the JSON patches are built from.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MutationExecutorBenchmark {
+
+    @Param({"1", "10", "100", "1000", "10000"})
+    int policyCount;
+
+    @Param({"false", "true"})
+    boolean recordChanges;
+
+    private Engine engine;
+    private List<CalculationMutation> mutations;
+
+    @Setup
+    public void setup() {
+        engine = new Engine();
+        mutations = engine.readRequest(Requests.request(Requests.lifecycle(policyCount, 42)))
+            .calculationInstructions()
+            .mutations();
+    }
+
+    @Benchmark
+    public ExecutionResult execute() {
+        return engine.executor.execute(mutations, new ValidationContext(), recordChanges, SchemeLookups.NONE);
+    }
+}
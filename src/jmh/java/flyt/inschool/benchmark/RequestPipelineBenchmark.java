@@ -0,0 +1,66 @@
+package flyt.inschool.benchmark;
+
+import flyt.inschool.api.dto.CalculationRequest;
+import flyt.inschool.api.dto.CalculationResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The stages of a {@code POST /calculation-requests} with patches, minus HTTP: reading the request, writing the
+ * response, and both around the calculation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RequestPipelineBenchmark {
+
+    @Param({"1", "10", "100", "1000", "10000"})
+    int policyCount;
+
+    private Engine engine;
+    private byte[] requestJson;
+    private CalculationResponse response;
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream(1 << 16);
+
+    @Setup
+    public void setup() {
+        engine = new Engine();
+        requestJson = Requests.request(Requests.lifecycle(policyCount, 42));
+        response = engine.calculationService.process(engine.readRequest(requestJson), true);
+    }
+
+    @Benchmark
+    public CalculationRequest readRequest() {
+        return engine.readRequest(requestJson);
+    }
+
+    @Benchmark
+    public int writeResponse() {
+        out.reset();
+        engine.writeResponse(response, out);
+        return out.size();
+    }
+
+    @Benchmark
+    public int calculate() {
+        CalculationRequest request = engine.readRequest(requestJson);
+        out.reset();
+        engine.writeResponse(engine.calculationService.process(request, true), out);
+        return out.size();
+    }
+}
@@ -0,0 +1,95 @@
+package flyt.inschool.benchmark;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * Mutation JSON for benchmark dossiers: a participant eligible by age on the retirement date and policies spread
+ * over five schemes and 35 years of employment start dates. Seeded, so every fork sees the same dossier.
+ */
+final class Requests {
+
+    static final String DOSSIER_ID = "550e8400-e29b-41d4-a716-446655440000";
+
+    private static final String[] SCHEMES = {"SCHEME-A", "SCHEME-B", "SCHEME-C", "SCHEME-D", "SCHEME-E"};
+    private static final double[] PART_TIME_FACTORS = {1.0, 1.0, 0.8, 0.6, 0.5};
+    private static final int FIRST_START_DAY = (int) LocalDate.of(1985, 1, 1).toEpochDay();
+    private static final int START_DAY_SPAN = (int) (LocalDate.of(2020, 1, 1).toEpochDay() - FIRST_START_DAY);
+
+    private Requests() {
+    }
+
+    static String createDossier() {
+        return mutation(0, "create_dossier", "DOSSIER_CREATION", "2020-01-01", """
+            {"dossier_id":"%s","person_id":"660e8400-e29b-41d4-a716-446655440001",\
+            "name":"Jane Doe","birth_date":"1960-06-15"}""".formatted(DOSSIER_ID));
+    }
+
+    static List<String> addPolicies(int count, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        List<String> mutations = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String properties = String.format(Locale.ROOT,
+                "{\"scheme_id\":\"%s\",\"employment_start_date\":\"%s\",\"salary\":%d,\"part_time_factor\":%s}",
+                SCHEMES[random.nextInt(SCHEMES.length)],
+                LocalDate.ofEpochDay(FIRST_START_DAY + random.nextInt(START_DAY_SPAN)),
+                30_000 + random.nextInt(60_001),
+                PART_TIME_FACTORS[random.nextInt(PART_TIME_FACTORS.length)]);
+            mutations.add(mutation(1 + i, "add_policy", "DOSSIER", "2020-01-01", properties));
+        }
+        return mutations;
+    }
+
+    /**
+     * @param schemeId         scheme filter, or {@code null} for all policies
+     * @param effectiveBefore  employment start date filter, or {@code null}
+     */
+    static String applyIndexation(int index, double percentage, String schemeId, String effectiveBefore) {
+        StringBuilder properties = new StringBuilder("{\"percentage\":").append(percentage);
+        if (schemeId != null) {
+            properties.append(",\"scheme_id\":\"").append(schemeId).append('"');
+        }
+        if (effectiveBefore != null) {
+            properties.append(",\"effective_before\":\"").append(effectiveBefore).append('"');
+        }
+        return mutation(index, "apply_indexation", "DOSSIER", "2021-01-01", properties.append('}').toString());
+    }
+
+    static String calculateRetirementBenefit(int index) {
+        return mutation(index, "calculate_retirement_benefit", "DOSSIER", "2025-07-01",
+            "{\"retirement_date\":\"2025-07-01\"}");
+    }
+
+    /**
+     * A dossier's life: creation, {@code policyCount} policies, a general, a scheme and a dated indexation, then
+     * retirement.
+     */
+    static List<String> lifecycle(int policyCount, long seed) {
+        List<String> mutations = new ArrayList<>(policyCount + 5);
+        mutations.add(createDossier());
+        mutations.addAll(addPolicies(policyCount, seed));
+        mutations.add(applyIndexation(policyCount + 1, 0.03, null, null));
+        mutations.add(applyIndexation(policyCount + 2, 0.02, "SCHEME-B", null));
+        mutations.add(applyIndexation(policyCount + 3, 0.01, null, "2005-01-01"));
+        mutations.add(calculateRetirementBenefit(policyCount + 4));
+        return mutations;
+    }
+
+    static byte[] request(List<String> mutations) {
+        return ("{\"tenant_id\":\"benchmark\",\"calculation_instructions\":{\"mutations\":["
+            + String.join(",", mutations) + "]}}").getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String mutation(int index, String definitionName, String type, String actualAt,
+                                   String properties) {
+        String dossierId = type.equals("DOSSIER") ? ",\"dossier_id\":\"" + DOSSIER_ID + "\"" : "";
+        return String.format(Locale.ROOT,
+            "{\"mutation_id\":\"00000000-0000-4000-8000-%012d\",\"mutation_definition_name\":\"%s\","
+                + "\"mutation_type\":\"%s\",\"actual_at\":\"%s\"%s,\"mutation_properties\":%s}",
+            index, definitionName, type, actualAt, dossierId, properties);
+    }
+}
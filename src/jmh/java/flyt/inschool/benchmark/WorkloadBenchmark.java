@@ -0,0 +1,88 @@
+package flyt.inschool.benchmark;
+
+import flyt.inschool.api.dto.CalculationRequest;
+import flyt.inschool.workload.WorkloadGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Calculates the requests of a corpus in turn, as {@link RequestPipelineBenchmark#calculate} does for a single
+ * one, so the score is the mean over the corpus' mix. The corpus is the {@code corpus} file, e.g. written by the
+ * application's {@code generate} command, or else {@code requests} requests generated with the default workload
+ * profile and {@code seed}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WorkloadBenchmark {
+
+    @Param({""})
+    String corpus;
+
+    @Param({"500"})
+    int requests;
+
+    @Param({"1"})
+    long seed;
+
+    private Engine engine;
+    private List<byte[]> requestJson;
+    private int next;
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream(1 << 16);
+
+    @Setup
+    public void setup() throws IOException {
+        engine = new Engine();
+        byte[] lines;
+        if (corpus.isEmpty()) {
+            ByteArrayOutputStream generated = new ByteArrayOutputStream();
+            new WorkloadGenerator(WorkloadGenerator.Profile.parse(List.of("seed=" + seed)))
+                .write(requests, generated);
+            lines = generated.toByteArray();
+        } else {
+            lines = Files.readAllBytes(Path.of(corpus));
+        }
+
+        requestJson = new ArrayList<>();
+        int start = 0;
+        for (int i = 0; i <= lines.length; i++) {
+            if (i == lines.length || lines[i] == '\n') {
+                if (i > start) {
+                    requestJson.add(Arrays.copyOfRange(lines, start, i));
+                }
+                start = i + 1;
+            }
+        }
+    }
+
+    @Benchmark
+    public int calculate() {
+        byte[] json = requestJson.get(next);
+        next = next + 1 < requestJson.size() ? next + 1 : 0;
+        CalculationRequest request = engine.readRequest(json);
+        out.reset();
+        engine.writeResponse(engine.calculationService.process(request, true), out);
+        return out.size();
+    }
+}
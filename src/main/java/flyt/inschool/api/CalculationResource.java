@@ -1,13 +1,28 @@
 package flyt.inschool.api;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import flyt.inschool.api.dto.BatchResponseLine;
 import flyt.inschool.api.dto.CalculationRequest;
 import flyt.inschool.api.dto.CalculationResponse;
 import flyt.inschool.api.dto.ErrorResponse;
+import flyt.inschool.api.json.BatchRequestReader;
+import flyt.inschool.registry.SchemeLookups;
+import flyt.inschool.service.CalculationDispatcher;
 import flyt.inschool.service.CalculationService;
+import io.smallrye.common.annotation.Blocking;
+import io.smallrye.common.annotation.NonBlocking;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.*;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.resteasy.reactive.RestStreamElementType;
+import org.jboss.resteasy.reactive.common.util.RestMediaType;
+
+import java.io.InputStream;
 
 @Path("/calculation-requests")
 public class CalculationResource {
@@ -15,32 +30,112 @@ public class CalculationResource {
     @Inject
     CalculationService calculationService;
 
+    @Inject
+    CalculationDispatcher dispatcher;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @ConfigProperty(name = "calculation.batch.max-in-flight", defaultValue = "64")
+    int batchMaxInFlight;
+
+    /**
+     * Invoked on the Vert.x event loop; the calculation itself runs wherever {@code calculation.execution.mode}
+     * says (on the event loop by default, as it is pure CPU work on request-local state, unless it may have to wait
+     * on a scheme registry lookup that is still in flight).
+     */
     @POST
+    @NonBlocking
     @Consumes(MediaType.APPLICATION_JSON)
     @Produces(MediaType.APPLICATION_JSON)
-    public Response processCalculationRequest(CalculationRequest request) {
+    public Uni<Response> processCalculationRequest(
+        @QueryParam("include_patches") @DefaultValue("true") boolean includePatches,
+        CalculationRequest request
+    ) {
+        return process(request, includePatches, false);
+    }
+
+    /**
+     * Calculates a batch of requests, given as a JSON array or as newline-delimited JSON, and streams one
+     * {@link BatchResponseLine} per request as soon as it completes, so lines come out of input order. At most
+     * {@code calculation.batch.max-in-flight} requests are read ahead of the responses written; the body is only
+     * read as responses drain, so a slow client holds back the input instead of filling the heap. Blocking, so the
+     * body is streamed rather than buffered up front.
+     */
+    @POST
+    @Blocking
+    @Path("/batch")
+    @Consumes({RestMediaType.APPLICATION_NDJSON, MediaType.APPLICATION_JSON})
+    @Produces(RestMediaType.APPLICATION_NDJSON)
+    @RestStreamElementType(MediaType.APPLICATION_JSON)
+    public Multi<BatchResponseLine> processBatch(
+        @QueryParam("include_patches") @DefaultValue("true") boolean includePatches,
+        InputStream body
+    ) {
+        BatchRequestReader reader = new BatchRequestReader(objectMapper, body);
+        return Multi.createBy().repeating()
+            // Reading blocks on the body, so each read moves to a worker thread
+            .uni(() -> Uni.createFrom().item(reader::next).runSubscriptionOn(Infrastructure.getDefaultWorkerPool()))
+            .until(entry -> entry == BatchRequestReader.END)
+            .onItem().transformToUni(entry -> entry.error() != null
+                ? Uni.createFrom().item(new BatchResponseLine(entry.index(), 400, null,
+                    new ErrorResponse(400, entry.error())))
+                : Uni.createFrom().deferred(() -> process(entry.request(), includePatches, true))
+                    .map(response -> batchLine(entry.index(), response))
+                    // A failure costs only its own line, not the rest of the batch
+                    .onFailure().recoverWithItem(e -> new BatchResponseLine(entry.index(), 500, null,
+                        new ErrorResponse(500, "Internal server error: " + e.getMessage()))))
+            .merge(batchMaxInFlight)
+            .onTermination().invoke(() -> closeQuietly(reader));
+    }
+
+    /**
+     * @param parallel whether the calculation must leave the calling thread even in event-loop mode, as batch
+     *                 requests should run side by side
+     */
+    private Uni<Response> process(CalculationRequest request, boolean includePatches, boolean parallel) {
+        ErrorResponse invalid = CalculationService.validate(request);
+        if (invalid != null) {
+            return Uni.createFrom().item(Response.status(invalid.status()).entity(invalid).build());
+        }
+
         try {
-            if (request == null || request.calculationInstructions() == null) {
-                return Response.status(400)
-                    .entity(new ErrorResponse(400, "Invalid request structure"))
-                    .build();
-            }
-
-            if (request.calculationInstructions().mutations() == null
-                || request.calculationInstructions().mutations().isEmpty()) {
-                return Response.status(400)
-                    .entity(new ErrorResponse(400, "Mutations list cannot be empty"))
-                    .build();
-            }
-
-            CalculationResponse response = calculationService.process(request);
+            SchemeLookups schemes = calculationService.prefetchSchemes(request);
+            return dispatcher.dispatch(() -> calculate(request, includePatches, schemes),
+                parallel || !schemes.resolved());
+        } catch (Exception e) {
+            return Uni.createFrom().item(internalError(e));
+        }
+    }
+
+    private static BatchResponseLine batchLine(long index, Response response) {
+        return response.getEntity() instanceof CalculationResponse calculation
+            ? new BatchResponseLine(index, response.getStatus(), calculation, null)
+            : new BatchResponseLine(index, response.getStatus(), null, (ErrorResponse) response.getEntity());
+    }
+
+    private static void closeQuietly(BatchRequestReader reader) {
+        try {
+            reader.close();
+        } catch (Exception ignored) {
+            // The request is over either way
+        }
+    }
+
+    private Response calculate(CalculationRequest request, boolean includePatches, SchemeLookups schemes) {
+        try {
+            CalculationResponse response = calculationService.process(request, includePatches, schemes);
             return Response.ok(response).build();
 
         } catch (Exception e) {
-            e.printStackTrace();
-            return Response.status(500)
-                .entity(new ErrorResponse(500, "Internal server error: " + e.getMessage()))
-                .build();
+            return internalError(e);
         }
     }
+
+    private static Response internalError(Exception e) {
+        e.printStackTrace();
+        return Response.status(500)
+            .entity(new ErrorResponse(500, "Internal server error: " + e.getMessage()))
+            .build();
+    }
 }
@@ -0,0 +1,61 @@
+package flyt.inschool.api;
+
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.quarkus.runtime.configuration.MemorySize;
+import io.quarkus.vertx.http.runtime.RouteConstants;
+import io.quarkus.vertx.http.runtime.VertxHttpRecorder;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.ext.web.Router;
+import io.vertx.ext.web.RoutingContext;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Per-route request body limits. The server-wide {@code quarkus.http.limits.max-body-size} is raised to the batch
+ * limit, as Quarkus checks it before routing; this handler runs right after that check and holds every other route
+ * to {@code calculation.max-body-size}, both for a declared {@code Content-Length} and for chunked bodies, which
+ * are read up to the limit the check leaves on the routing context.
+ */
+@ApplicationScoped
+public class RequestBodyLimits {
+
+    static final String BATCH_PATH = "/calculation-requests/batch";
+
+    @ConfigProperty(name = "calculation.max-body-size", defaultValue = "10240K")
+    MemorySize maxBodySize;
+
+    void register(@Observes Router router) {
+        long limit = maxBodySize.asLongValue();
+        Long limitObject = limit;
+        router.route().order(RouteConstants.ROUTE_ORDER_UPLOAD_LIMIT + 1).handler(context -> {
+            if (!BATCH_PATH.equals(context.normalizedPath())) {
+                String length = context.request().getHeader(HttpHeaders.CONTENT_LENGTH);
+                if (length != null && tooLong(length, limit)) {
+                    reject(context);
+                    return;
+                }
+                context.put(VertxHttpRecorder.MAX_REQUEST_SIZE_KEY, limitObject);
+            }
+            context.next();
+        });
+    }
+
+    private static boolean tooLong(String contentLength, long limit) {
+        try {
+            return Long.parseLong(contentLength) > limit;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /**
+     * As Quarkus rejects bodies over its own limit: the connection is closed rather than drained.
+     */
+    private static void reject(RoutingContext context) {
+        context.response()
+            .putHeader(HttpHeaders.CONNECTION, HttpHeaders.CLOSE)
+            .setStatusCode(HttpResponseStatus.REQUEST_ENTITY_TOO_LARGE.code())
+            .end();
+    }
+}
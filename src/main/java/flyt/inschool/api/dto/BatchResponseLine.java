@@ -0,0 +1,15 @@
+package flyt.inschool.api.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * One line of a batch response: the position of the request in the batch, the status a single request would have
+ * got, and either its response or its error.
+ */
+public record BatchResponseLine(
+    @JsonProperty("index") long index,
+    @JsonProperty("status") int status,
+    @JsonProperty("response") CalculationResponse response,
+    @JsonProperty("error") ErrorResponse error
+) {
+}
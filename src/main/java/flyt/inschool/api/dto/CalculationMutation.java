@@ -1,22 +1,15 @@
 package flyt.inschool.api.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
-import com.fasterxml.jackson.annotation.JsonSubTypes;
-import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
 
 import java.time.LocalDate;
-import java.util.Map;
-
-@JsonTypeInfo(
-    use = JsonTypeInfo.Id.NAME,
-    include = JsonTypeInfo.As.EXISTING_PROPERTY,
-    property = "mutation_type",
-    visible = true
-)
-@JsonSubTypes({
-    @JsonSubTypes.Type(value = DossierCreationMutation.class, name = "DOSSIER_CREATION"),
-    @JsonSubTypes.Type(value = DossierMutation.class, name = "DOSSIER")
-})
+
+/**
+ * Deserialized by {@link flyt.inschool.api.json.CalculationMutationDeserializer}, which picks the subtype from
+ * {@code mutation_type} and the typed properties from {@code mutation_definition_name}.
+ */
 public abstract class CalculationMutation {
     @JsonProperty("mutation_id")
     private String mutationId;
@@ -31,13 +24,17 @@ public abstract class CalculationMutation {
     private LocalDate actualAt;
 
     @JsonProperty("mutation_properties")
-    private Map<String, Object> mutationProperties;
+    private MutationProperties mutationProperties;
+
+    // mutation_properties as they arrived, for the echo; the typed properties are used in the calculation
+    @JsonIgnore
+    private TokenBuffer propertiesTokens;
 
     public CalculationMutation() {
     }
 
     public CalculationMutation(String mutationId, String mutationDefinitionName, String mutationType,
-                               LocalDate actualAt, Map<String, Object> mutationProperties) {
+                               LocalDate actualAt, MutationProperties mutationProperties) {
         this.mutationId = mutationId;
         this.mutationDefinitionName = mutationDefinitionName;
         this.mutationType = mutationType;
@@ -49,11 +46,13 @@ public abstract class CalculationMutation {
     public String getMutationDefinitionName() { return mutationDefinitionName; }
     public String getMutationType() { return mutationType; }
     public LocalDate getActualAt() { return actualAt; }
-    public Map<String, Object> getMutationProperties() { return mutationProperties; }
+    public MutationProperties getMutationProperties() { return mutationProperties; }
+    public TokenBuffer getPropertiesTokens() { return propertiesTokens; }
 
     public void setMutationId(String mutationId) { this.mutationId = mutationId; }
     public void setMutationDefinitionName(String mutationDefinitionName) { this.mutationDefinitionName = mutationDefinitionName; }
     public void setMutationType(String mutationType) { this.mutationType = mutationType; }
     public void setActualAt(LocalDate actualAt) { this.actualAt = actualAt; }
-    public void setMutationProperties(Map<String, Object> mutationProperties) { this.mutationProperties = mutationProperties; }
+    public void setMutationProperties(MutationProperties mutationProperties) { this.mutationProperties = mutationProperties; }
+    public void setPropertiesTokens(TokenBuffer propertiesTokens) { this.propertiesTokens = propertiesTokens; }
 }
@@ -1,9 +1,18 @@
 package flyt.inschool.api.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
+/**
+ * When {@code serializedResult} is set (a result served from or just stored in the result cache), it is written
+ * verbatim as {@code calculation_result} and {@code calculationResult} may be {@code null}.
+ */
 public record CalculationResponse(
     @JsonProperty("calculation_metadata") CalculationMetadata calculationMetadata,
-    @JsonProperty("calculation_result") CalculationResult calculationResult
+    @JsonProperty("calculation_result") CalculationResult calculationResult,
+    @JsonIgnore byte[] serializedResult
 ) {
+    public CalculationResponse(CalculationMetadata calculationMetadata, CalculationResult calculationResult) {
+        this(calculationMetadata, calculationResult, null);
+    }
 }
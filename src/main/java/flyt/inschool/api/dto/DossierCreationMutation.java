@@ -1,7 +1,6 @@
 package flyt.inschool.api.dto;
 
 import java.time.LocalDate;
-import java.util.Map;
 
 public class DossierCreationMutation extends CalculationMutation {
     public DossierCreationMutation() {
@@ -9,7 +8,7 @@ public class DossierCreationMutation extends CalculationMutation {
     }
 
     public DossierCreationMutation(String mutationId, String mutationDefinitionName,
-                                   LocalDate actualAt, Map<String, Object> mutationProperties) {
+                                   LocalDate actualAt, MutationProperties mutationProperties) {
         super(mutationId, mutationDefinitionName, "DOSSIER_CREATION", actualAt, mutationProperties);
     }
 }
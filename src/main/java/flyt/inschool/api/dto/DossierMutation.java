@@ -3,7 +3,6 @@ package flyt.inschool.api.dto;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 import java.time.LocalDate;
-import java.util.Map;
 
 public class DossierMutation extends CalculationMutation {
     @JsonProperty("dossier_id")
@@ -14,7 +13,7 @@ public class DossierMutation extends CalculationMutation {
     }
 
     public DossierMutation(String mutationId, String mutationDefinitionName,
-                          LocalDate actualAt, String dossierId, Map<String, Object> mutationProperties) {
+                          LocalDate actualAt, String dossierId, MutationProperties mutationProperties) {
         super(mutationId, mutationDefinitionName, "DOSSIER", actualAt, mutationProperties);
         this.dossierId = dossierId;
     }
@@ -0,0 +1,16 @@
+package flyt.inschool.api.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import flyt.inschool.api.json.MutationPropertiesSerializer;
+
+import java.io.IOException;
+
+/**
+ * Typed {@code mutation_properties} of one mutation, as read by the
+ * {@link flyt.inschool.api.json.MutationPropertiesReader} registered for its definition name.
+ */
+@JsonSerialize(using = MutationPropertiesSerializer.class)
+public interface MutationProperties {
+    void writeFields(JsonGenerator generator) throws IOException;
+}
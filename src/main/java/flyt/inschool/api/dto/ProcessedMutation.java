@@ -1,15 +1,28 @@
 package flyt.inschool.api.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import flyt.inschool.mutation.ChangeLog;
 
 import java.util.List;
+import java.util.stream.IntStream;
 
+/**
+ * {@code forward_patch_to_situation_after_this_mutation} and {@code backward_patch_to_previous_situation} are
+ * written from {@code changes} by {@link flyt.inschool.api.json.CalculationResponseWriter}; both are omitted when
+ * the request opted out of patches ({@code changes} is {@code null}). {@code calculation_message_indexes} are the
+ * message ids from {@code messageStart} up to {@code messageEnd}.
+ */
 @JsonInclude(JsonInclude.Include.NON_NULL)
 public record ProcessedMutation(
     @JsonProperty("mutation") CalculationMutation mutation,
-    @JsonProperty("forward_patch_to_situation_after_this_mutation") Object forwardPatch,
-    @JsonProperty("backward_patch_to_previous_situation") Object backwardPatch,
-    @JsonProperty("calculation_message_indexes") List<Integer> calculationMessageIndexes
+    @JsonIgnore ChangeLog changes,
+    @JsonIgnore int messageStart,
+    @JsonIgnore int messageEnd
 ) {
+    @JsonProperty("calculation_message_indexes")
+    public List<Integer> calculationMessageIndexes() {
+        return IntStream.range(messageStart, messageEnd).boxed().toList();
+    }
 }
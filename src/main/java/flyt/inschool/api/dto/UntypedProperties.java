@@ -0,0 +1,20 @@
+package flyt.inschool.api.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Properties of a mutation without a registered reader, read as a plain map.
+ */
+public record UntypedProperties(Map<String, Object> values) implements MutationProperties {
+
+    @Override
+    public void writeFields(JsonGenerator generator) throws IOException {
+        for (Map.Entry<String, Object> entry : values.entrySet()) {
+            generator.writeFieldName(entry.getKey());
+            generator.writeObject(entry.getValue());
+        }
+    }
+}
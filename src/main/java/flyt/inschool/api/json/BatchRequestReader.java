@@ -0,0 +1,64 @@
+package flyt.inschool.api.json;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import flyt.inschool.api.dto.CalculationRequest;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reads the requests of a batch one at a time from a JSON array or from newline-delimited JSON, so only the
+ * requests in flight are held in memory. Reads block on the request body and must stay off the event loop.
+ */
+public final class BatchRequestReader implements AutoCloseable {
+
+    public static final Entry END = new Entry(-1, null, null);
+
+    /**
+     * A request, or the reason the input could not be read at {@code index}; nothing follows an unreadable entry.
+     */
+    public record Entry(long index, CalculationRequest request, String error) {
+    }
+
+    private final ObjectMapper objectMapper;
+    private final InputStream body;
+    private MappingIterator<CalculationRequest> requests;
+    private long index;
+    private boolean failed;
+
+    public BatchRequestReader(ObjectMapper objectMapper, InputStream body) {
+        this.objectMapper = objectMapper;
+        this.body = body;
+    }
+
+    public Entry next() {
+        if (failed) {
+            return END;
+        }
+        try {
+            if (requests == null) {
+                // A top-level array is unwrapped; otherwise the root-level values are read in sequence
+                requests = objectMapper.readerFor(CalculationRequest.class).readValues(body);
+            }
+            if (!requests.hasNextValue()) {
+                return END;
+            }
+            return new Entry(index, requests.nextValue(), null);
+        } catch (IOException | RuntimeException e) {
+            failed = true;
+            return new Entry(index, null, "Invalid batch input: " + e.getMessage());
+        } finally {
+            index++;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (requests != null) {
+            requests.close();
+        } else {
+            body.close();
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package flyt.inschool.api.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import flyt.inschool.api.dto.BatchResponseLine;
+import flyt.inschool.metrics.CalculationMetrics;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.ext.Provider;
+import org.jboss.resteasy.reactive.common.util.RestMediaType;
+import org.jboss.resteasy.reactive.server.spi.ResteasyReactiveResourceInfo;
+import org.jboss.resteasy.reactive.server.spi.ServerMessageBodyWriter;
+import org.jboss.resteasy.reactive.server.spi.ServerRequestContext;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+
+/**
+ * Writes a {@link BatchResponseLine} with the embedded response streamed like {@link CalculationResponseWriter}
+ * does for a single request.
+ */
+@Provider
+// Stream elements are looked up with the media type of the whole stream
+@Produces({MediaType.APPLICATION_JSON, RestMediaType.APPLICATION_NDJSON})
+public class BatchResponseLineWriter implements ServerMessageBodyWriter<BatchResponseLine> {
+
+    private static final SerializedString INDEX = new SerializedString("index");
+    private static final SerializedString STATUS = new SerializedString("status");
+    private static final SerializedString RESPONSE = new SerializedString("response");
+    private static final SerializedString ERROR = new SerializedString("error");
+    private static final SerializedString MESSAGE = new SerializedString("message");
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @Inject
+    CalculationMetrics metrics;
+
+    @Override
+    public boolean isWriteable(Class<?> type, Type genericType, ResteasyReactiveResourceInfo target,
+                               MediaType mediaType) {
+        return type == BatchResponseLine.class;
+    }
+
+    @Override
+    public boolean isWriteable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        return type == BatchResponseLine.class;
+    }
+
+    @Override
+    public void writeResponse(BatchResponseLine line, Type genericType, ServerRequestContext context)
+        throws IOException {
+        long startedAt = System.nanoTime();
+        write(line, context.getOrCreateOutputStream(), objectMapper);
+        metrics.recordPhase(CalculationMetrics.Phase.SERIALIZE, System.nanoTime() - startedAt);
+    }
+
+    @Override
+    public void writeTo(BatchResponseLine line, Class<?> type, Type genericType, Annotation[] annotations,
+                        MediaType mediaType, MultivaluedMap<String, Object> httpHeaders, OutputStream entityStream)
+        throws IOException {
+        long startedAt = System.nanoTime();
+        write(line, entityStream, objectMapper);
+        metrics.recordPhase(CalculationMetrics.Phase.SERIALIZE, System.nanoTime() - startedAt);
+    }
+
+    public static void write(BatchResponseLine line, OutputStream entityStream, ObjectMapper objectMapper)
+        throws IOException {
+        try (JsonGenerator generator = objectMapper.createGenerator(entityStream)) {
+            generator.writeStartObject();
+            generator.writeFieldName(INDEX);
+            generator.writeNumber(line.index());
+            generator.writeFieldName(STATUS);
+            generator.writeNumber(line.status());
+            if (line.response() != null) {
+                generator.writeFieldName(RESPONSE);
+                CalculationResponseWriter.writeResponse(generator, entityStream, line.response());
+            }
+            if (line.error() != null) {
+                generator.writeFieldName(ERROR);
+                generator.writeStartObject();
+                generator.writeFieldName(STATUS);
+                generator.writeNumber(line.error().status());
+                if (line.error().message() != null) {
+                    generator.writeFieldName(MESSAGE);
+                    generator.writeString(line.error().message());
+                }
+                generator.writeEndObject();
+            }
+            generator.writeEndObject();
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package flyt.inschool.api.json;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import flyt.inschool.api.dto.CalculationMutation;
+import flyt.inschool.api.dto.DossierCreationMutation;
+import flyt.inschool.api.dto.DossierMutation;
+import flyt.inschool.api.dto.MutationProperties;
+import flyt.inschool.api.dto.UntypedProperties;
+import flyt.inschool.mutation.MutationRegistry;
+import flyt.inschool.util.EpochDays;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * Streams a mutation without going through a generic property bag. {@code mutation_properties} is copied token for
+ * token, which the response echoes as it arrived (unknown properties, number formatting and precision included),
+ * and the {@link MutationPropertiesReader} registered for the mutation's definition name reads the typed
+ * properties used in the calculation from that copy.
+ */
+public class CalculationMutationDeserializer extends StdDeserializer<CalculationMutation> {
+
+    private static final long serialVersionUID = 1L;
+
+    // A CDI bean, never serialized with the deserializer
+    private final transient MutationRegistry registry;
+
+    public CalculationMutationDeserializer(MutationRegistry registry) {
+        super(CalculationMutation.class);
+        this.registry = registry;
+    }
+
+    @Override
+    public CalculationMutation deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+        if (!parser.isExpectedStartObjectToken()) {
+            return (CalculationMutation) context.handleUnexpectedToken(CalculationMutation.class, parser);
+        }
+
+        String mutationId = null;
+        String definitionName = null;
+        String mutationType = null;
+        String dossierId = null;
+        LocalDate actualAt = null;
+        MutationProperties properties = null;
+        TokenBuffer propertiesTokens = null;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "mutation_id" -> mutationId = parser.getValueAsString();
+                case "mutation_definition_name" -> definitionName = parser.getValueAsString();
+                case "mutation_type" -> mutationType = parser.getValueAsString();
+                case "dossier_id" -> dossierId = parser.getValueAsString();
+                case "actual_at" -> {
+                    int actualAtDay = JsonFields.readEpochDay(parser);
+                    actualAt = actualAtDay != EpochDays.NONE ? LocalDate.ofEpochDay(actualAtDay) : null;
+                }
+                case "mutation_properties" -> propertiesTokens = context.bufferAsCopyOfValue(parser);
+                default -> parser.skipChildren();
+            }
+        }
+
+        if (propertiesTokens != null) {
+            try (JsonParser buffered = propertiesTokens.asParser(parser.getCodec())) {
+                buffered.nextToken();
+                properties = readProperties(definitionName, buffered, context);
+            }
+        }
+
+        CalculationMutation mutation;
+        if ("DOSSIER_CREATION".equals(mutationType)) {
+            mutation = new DossierCreationMutation(mutationId, definitionName, actualAt, properties);
+        } else if ("DOSSIER".equals(mutationType)) {
+            mutation = new DossierMutation(mutationId, definitionName, actualAt, dossierId, properties);
+        } else {
+            return (CalculationMutation) context.handleWeirdStringValue(
+                CalculationMutation.class, mutationType, "Unknown mutation_type");
+        }
+        if (properties != null) {
+            mutation.setPropertiesTokens(propertiesTokens);
+        }
+        return mutation;
+    }
+
+    @SuppressWarnings("unchecked")
+    private MutationProperties readProperties(String definitionName, JsonParser parser, DeserializationContext context)
+        throws IOException {
+        if (parser.currentToken() == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        MutationPropertiesReader reader = definitionName != null ? registry.getPropertiesReader(definitionName) : null;
+        if (reader == null) {
+            return new UntypedProperties(context.readValue(parser, Map.class));
+        }
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            return (MutationProperties) context.handleUnexpectedToken(MutationProperties.class, parser);
+        }
+        return reader.read(parser);
+    }
+}
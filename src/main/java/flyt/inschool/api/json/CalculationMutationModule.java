@@ -0,0 +1,30 @@
+package flyt.inschool.api.json;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import flyt.inschool.api.dto.CalculationMutation;
+import flyt.inschool.mutation.MutationRegistry;
+import io.quarkus.jackson.ObjectMapperCustomizer;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+
+@Singleton
+public class CalculationMutationModule implements ObjectMapperCustomizer {
+
+    @Inject
+    MutationRegistry registry;
+
+    public CalculationMutationModule() {
+    }
+
+    public CalculationMutationModule(MutationRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public void customize(ObjectMapper objectMapper) {
+        SimpleModule module = new SimpleModule("calculation-mutations");
+        module.addDeserializer(CalculationMutation.class, new CalculationMutationDeserializer(registry));
+        objectMapper.registerModule(module);
+    }
+}
@@ -0,0 +1,56 @@
+package flyt.inschool.api.json;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import flyt.inschool.api.dto.CalculationRequest;
+import flyt.inschool.metrics.CalculationMetrics;
+import io.quarkus.resteasy.reactive.jackson.runtime.serialisers.ServerJacksonMessageBodyReader;
+import jakarta.enterprise.inject.Instance;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.ext.Provider;
+import org.jboss.resteasy.reactive.server.spi.ResteasyReactiveResourceInfo;
+import org.jboss.resteasy.reactive.server.spi.ServerRequestContext;
+
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+
+/**
+ * The default Jackson reader for {@link CalculationRequest} bodies, timed as the deserialize phase; parse errors
+ * are reported exactly as without it.
+ */
+@Provider
+@Consumes(MediaType.APPLICATION_JSON)
+public class CalculationRequestReader extends ServerJacksonMessageBodyReader {
+
+    @Inject
+    CalculationMetrics metrics;
+
+    @Inject
+    public CalculationRequestReader(Instance<ObjectMapper> mapper) {
+        super(mapper);
+    }
+
+    @Override
+    public boolean isReadable(Class<?> type, Type genericType, ResteasyReactiveResourceInfo lazyMethod,
+                              MediaType mediaType) {
+        return type == CalculationRequest.class;
+    }
+
+    @Override
+    public boolean isReadable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        return type == CalculationRequest.class;
+    }
+
+    @Override
+    public Object readFrom(Class<Object> type, Type genericType, MediaType mediaType, ServerRequestContext context)
+        throws IOException {
+        long startedAt = System.nanoTime();
+        try {
+            return super.readFrom(type, genericType, mediaType, context);
+        } finally {
+            metrics.recordPhase(CalculationMetrics.Phase.DESERIALIZE, System.nanoTime() - startedAt);
+        }
+    }
+}
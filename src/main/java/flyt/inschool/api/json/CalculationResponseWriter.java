@@ -0,0 +1,600 @@
+package flyt.inschool.api.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import flyt.inschool.api.dto.*;
+import flyt.inschool.domain.Dossier;
+import flyt.inschool.domain.DossierStatus;
+import flyt.inschool.domain.Person;
+import flyt.inschool.domain.PersonRole;
+import flyt.inschool.domain.Policy;
+import flyt.inschool.domain.ProjectionSeries;
+import flyt.inschool.domain.Situation;
+import flyt.inschool.metrics.CalculationMetrics;
+import flyt.inschool.mutation.ChangeLog;
+import flyt.inschool.util.CoarseClock;
+import flyt.inschool.util.EpochDays;
+import flyt.inschool.validation.MessageCode;
+import flyt.inschool.validation.MessageLog;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.ext.Provider;
+import org.jboss.resteasy.reactive.server.spi.ResteasyReactiveResourceInfo;
+import org.jboss.resteasy.reactive.server.spi.ServerMessageBodyWriter;
+import org.jboss.resteasy.reactive.server.spi.ServerRequestContext;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Streams a {@link CalculationResponse} straight into the response output with a {@link JsonGenerator} instead of
+ * going through Jackson's reflective bean serializers. The output is identical to what the {@code @JsonProperty}
+ * mappings of the DTOs produce with {@code serialization-inclusion=non-null}: same field order, nulls omitted,
+ * the dossier's derived {@code policyCount} included.
+ */
+@Provider
+@Produces(MediaType.APPLICATION_JSON)
+public class CalculationResponseWriter implements ServerMessageBodyWriter<CalculationResponse> {
+
+    private static final SerializedString CALCULATION_METADATA = new SerializedString("calculation_metadata");
+    private static final SerializedString CALCULATION_RESULT = new SerializedString("calculation_result");
+
+    private static final SerializedString CALCULATION_ID = new SerializedString("calculation_id");
+    private static final SerializedString TENANT_ID = new SerializedString("tenant_id");
+    private static final SerializedString CALCULATION_STARTED_AT = new SerializedString("calculation_started_at");
+    private static final SerializedString CALCULATION_COMPLETED_AT = new SerializedString("calculation_completed_at");
+    private static final SerializedString CALCULATION_DURATION_MS = new SerializedString("calculation_duration_ms");
+    private static final SerializedString CALCULATION_OUTCOME = new SerializedString("calculation_outcome");
+
+    private static final SerializedString MESSAGES = new SerializedString("messages");
+    private static final SerializedString MUTATIONS = new SerializedString("mutations");
+    private static final SerializedString END_SITUATION = new SerializedString("end_situation");
+    private static final SerializedString INITIAL_SITUATION = new SerializedString("initial_situation");
+
+    private static final SerializedString ID = new SerializedString("id");
+    private static final SerializedString LEVEL = new SerializedString("level");
+    private static final SerializedString CODE = new SerializedString("code");
+    private static final SerializedString MESSAGE = new SerializedString("message");
+
+    private static final SerializedString MUTATION = new SerializedString("mutation");
+    private static final SerializedString FORWARD_PATCH =
+        new SerializedString("forward_patch_to_situation_after_this_mutation");
+    private static final SerializedString BACKWARD_PATCH = new SerializedString("backward_patch_to_previous_situation");
+    private static final SerializedString CALCULATION_MESSAGE_INDEXES =
+        new SerializedString("calculation_message_indexes");
+
+    private static final SerializedString OP = new SerializedString("op");
+    private static final SerializedString PATH = new SerializedString("path");
+    private static final SerializedString VALUE = new SerializedString("value");
+    private static final SerializedString[] OPS = {
+        new SerializedString("add"), new SerializedString("remove"), new SerializedString("replace")
+    };
+
+    private static final SerializedString MUTATION_ID = new SerializedString("mutation_id");
+    private static final SerializedString MUTATION_DEFINITION_NAME = new SerializedString("mutation_definition_name");
+    private static final SerializedString MUTATION_TYPE = new SerializedString("mutation_type");
+    private static final SerializedString ACTUAL_AT = new SerializedString("actual_at");
+    private static final SerializedString MUTATION_PROPERTIES = new SerializedString("mutation_properties");
+    private static final SerializedString DOSSIER_ID = new SerializedString("dossier_id");
+
+    private static final SerializedString MUTATION_INDEX = new SerializedString("mutation_index");
+    private static final SerializedString SITUATION = new SerializedString("situation");
+    private static final SerializedString DOSSIER = new SerializedString("dossier");
+
+    private static final SerializedString STATUS = new SerializedString("status");
+    private static final SerializedString RETIREMENT_DATE = new SerializedString("retirement_date");
+    private static final SerializedString PERSONS = new SerializedString("persons");
+    private static final SerializedString POLICIES = new SerializedString("policies");
+    private static final SerializedString POLICY_COUNT = new SerializedString("policyCount");
+
+    private static final SerializedString PERSON_ID = new SerializedString("person_id");
+    private static final SerializedString ROLE = new SerializedString("role");
+    private static final SerializedString NAME = new SerializedString("name");
+    private static final SerializedString BIRTH_DATE = new SerializedString("birth_date");
+
+    private static final SerializedString POLICY_ID = new SerializedString("policy_id");
+    private static final SerializedString SCHEME_ID = new SerializedString("scheme_id");
+    private static final SerializedString EMPLOYMENT_START_DATE = new SerializedString("employment_start_date");
+    private static final SerializedString SALARY = new SerializedString("salary");
+    private static final SerializedString PART_TIME_FACTOR = new SerializedString("part_time_factor");
+    private static final SerializedString ATTAINABLE_PENSION = new SerializedString("attainable_pension");
+    private static final SerializedString PROJECTIONS = new SerializedString("projections");
+    private static final SerializedString DATE = new SerializedString("date");
+    private static final SerializedString PROJECTED_PENSION = new SerializedString("projected_pension");
+
+    private static final SerializedString[] OUTCOMES = names(CalculationOutcome.values());
+    private static final SerializedString[] LEVELS = names(MessageLevel.values());
+    private static final SerializedString[] STATUSES = names(DossierStatus.values());
+    private static final SerializedString[] ROLES = names(PersonRole.values());
+    private static final SerializedString[] CODES = names(MessageCode.values());
+    private static final SerializedString[] DEFAULT_MESSAGES = defaultMessages();
+
+    // JSON pointers by ChangeLog target; policy targets continue with the row index and the field suffix
+    private static final char[][] PATH_PREFIXES = {
+        "/dossier".toCharArray(),
+        "/dossier/status".toCharArray(),
+        "/dossier/retirement_date".toCharArray(),
+        "/dossier/policyCount".toCharArray(),
+        "/dossier/policies/".toCharArray(),
+        "/dossier/policies/".toCharArray(),
+        "/dossier/policies/".toCharArray(),
+        "/dossier/policies/".toCharArray()
+    };
+    private static final char[][] PATH_SUFFIXES = {
+        null, null, null, null,
+        new char[0],
+        "/salary".toCharArray(),
+        "/attainable_pension".toCharArray(),
+        "/projections".toCharArray()
+    };
+
+    private static final int MIN_FORMATTED_DAY = EpochDays.of(0, 1, 1);
+    private static final int MAX_FORMATTED_DAY = EpochDays.of(9999, 12, 31);
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @Inject
+    CalculationMetrics metrics;
+
+    public CalculationResponseWriter() {
+    }
+
+    public CalculationResponseWriter(ObjectMapper objectMapper, CalculationMetrics metrics) {
+        this.objectMapper = objectMapper;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public boolean isWriteable(Class<?> type, Type genericType, ResteasyReactiveResourceInfo target,
+                               MediaType mediaType) {
+        return type == CalculationResponse.class;
+    }
+
+    @Override
+    public boolean isWriteable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        return type == CalculationResponse.class;
+    }
+
+    @Override
+    public void writeResponse(CalculationResponse response, Type genericType, ServerRequestContext context)
+        throws IOException {
+        write(response, context.getOrCreateOutputStream());
+    }
+
+    @Override
+    public void writeTo(CalculationResponse response, Class<?> type, Type genericType, Annotation[] annotations,
+                        MediaType mediaType, MultivaluedMap<String, Object> httpHeaders, OutputStream entityStream)
+        throws IOException {
+        write(response, entityStream);
+    }
+
+    /**
+     * The {@code calculation_result} JSON exactly as it appears inside a response, for the result cache.
+     */
+    public static byte[] serializeResult(CalculationResult result, ObjectMapper objectMapper) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(4096);
+        try (JsonGenerator generator = objectMapper.createGenerator(out)) {
+            new ResponseJson(generator, out).writeResult(result);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Writes {@code response} as the next value of a generator writing to {@code out}, e.g. inside a batch line.
+     */
+    static void writeResponse(JsonGenerator generator, OutputStream out, CalculationResponse response)
+        throws IOException {
+        new ResponseJson(generator, out).writeResponse(response);
+    }
+
+    /**
+     * Writes the {@code mutation_properties} object of a mutation as it arrived in the request, or from its typed
+     * properties for a mutation built in code. Numbers are written from their text, which the token copy keeps as
+     * it was for values it had not parsed yet.
+     */
+    static void writeMutationProperties(JsonGenerator generator, CalculationMutation mutation) throws IOException {
+        if (mutation.getPropertiesTokens() != null) {
+            try (JsonParser tokens = mutation.getPropertiesTokens().asParser()) {
+                while (tokens.nextToken() != null) {
+                    if (tokens.currentToken().isNumeric()) {
+                        generator.writeNumber(tokens.getText());
+                    } else {
+                        generator.copyCurrentEvent(tokens);
+                    }
+                }
+            }
+        } else {
+            generator.writeStartObject();
+            mutation.getMutationProperties().writeFields(generator);
+            generator.writeEndObject();
+        }
+    }
+
+    private void write(CalculationResponse response, OutputStream out) throws IOException {
+        long startedAt = System.nanoTime();
+        // The generator keeps the mapper as codec for untyped values (properties of unregistered mutations)
+        try (JsonGenerator generator = objectMapper.createGenerator(out)) {
+            new ResponseJson(generator, out).writeResponse(response);
+        }
+        metrics.recordPhase(CalculationMetrics.Phase.SERIALIZE, System.nanoTime() - startedAt);
+    }
+
+    private static SerializedString[] names(Enum<?>[] values) {
+        SerializedString[] names = new SerializedString[values.length];
+        for (Enum<?> value : values) {
+            names[value.ordinal()] = new SerializedString(value.name());
+        }
+        return names;
+    }
+
+    private static SerializedString[] defaultMessages() {
+        SerializedString[] messages = new SerializedString[MessageCode.values().length];
+        for (MessageCode code : MessageCode.values()) {
+            messages[code.ordinal()] = new SerializedString(code.getDefaultMessage());
+        }
+        return messages;
+    }
+
+    /**
+     * Per-response state: the generator and scratch buffers for dates and patch paths.
+     */
+    private static final class ResponseJson {
+        private final JsonGenerator generator;
+        private final OutputStream out;
+        private final char[] dateBuffer = new char[10];
+        private final char[] pathBuffer = new char[64];
+
+        ResponseJson(JsonGenerator generator, OutputStream out) {
+            this.generator = generator;
+            this.out = out;
+        }
+
+        void writeResponse(CalculationResponse response) throws IOException {
+            generator.writeStartObject();
+            if (response.calculationMetadata() != null) {
+                generator.writeFieldName(CALCULATION_METADATA);
+                writeMetadata(response.calculationMetadata());
+            }
+            if (response.serializedResult() != null) {
+                generator.writeFieldName(CALCULATION_RESULT);
+                writeRawValue(response.serializedResult());
+            } else if (response.calculationResult() != null) {
+                generator.writeFieldName(CALCULATION_RESULT);
+                writeResult(response.calculationResult());
+            }
+            generator.writeEndObject();
+        }
+
+        /**
+         * Lets the generator emit the separator of an empty raw value, then appends the bytes behind it directly
+         * on the stream.
+         */
+        private void writeRawValue(byte[] json) throws IOException {
+            generator.writeRawValue("");
+            generator.disable(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM);
+            generator.flush();
+            out.write(json);
+        }
+
+        private void writeMetadata(CalculationMetadata metadata) throws IOException {
+            generator.writeStartObject();
+            writeStringField(CALCULATION_ID, metadata.calculationId());
+            writeStringField(TENANT_ID, metadata.tenantId());
+            writeInstantField(CALCULATION_STARTED_AT, metadata.calculationStartedAt());
+            writeInstantField(CALCULATION_COMPLETED_AT, metadata.calculationCompletedAt());
+            generator.writeFieldName(CALCULATION_DURATION_MS);
+            generator.writeNumber(metadata.calculationDurationMs());
+            if (metadata.calculationOutcome() != null) {
+                generator.writeFieldName(CALCULATION_OUTCOME);
+                generator.writeString(OUTCOMES[metadata.calculationOutcome().ordinal()]);
+            }
+            generator.writeEndObject();
+        }
+
+        private void writeResult(CalculationResult result) throws IOException {
+            generator.writeStartObject();
+            if (result.messages() != null) {
+                generator.writeFieldName(MESSAGES);
+                generator.writeStartArray();
+                MessageLog messages = result.messages();
+                for (int i = 0; i < messages.size(); i++) {
+                    writeMessage(messages, i);
+                }
+                generator.writeEndArray();
+            }
+            if (result.mutations() != null) {
+                generator.writeFieldName(MUTATIONS);
+                generator.writeStartArray();
+                for (ProcessedMutation mutation : result.mutations()) {
+                    writeProcessedMutation(mutation);
+                }
+                generator.writeEndArray();
+            }
+            if (result.endSituation() != null) {
+                generator.writeFieldName(END_SITUATION);
+                writeSnapshot(result.endSituation());
+            }
+            if (result.initialSituation() != null) {
+                generator.writeFieldName(INITIAL_SITUATION);
+                writeSnapshot(result.initialSituation());
+            }
+            generator.writeEndObject();
+        }
+
+        /**
+         * Codes and default messages are escaped once up front; only messages with an argument are formatted here.
+         */
+        private void writeMessage(MessageLog messages, int id) throws IOException {
+            generator.writeStartObject();
+            generator.writeFieldName(ID);
+            generator.writeNumber(id);
+            generator.writeFieldName(LEVEL);
+            generator.writeString(LEVELS[messages.levelOrdinal(id)]);
+            generator.writeFieldName(CODE);
+            generator.writeString(CODES[messages.codeOrdinal(id)]);
+            generator.writeFieldName(MESSAGE);
+            if (messages.argument(id) == null) {
+                generator.writeString(DEFAULT_MESSAGES[messages.codeOrdinal(id)]);
+            } else {
+                generator.writeString(messages.message(id));
+            }
+            generator.writeEndObject();
+        }
+
+        private void writeProcessedMutation(ProcessedMutation processed) throws IOException {
+            generator.writeStartObject();
+            if (processed.mutation() != null) {
+                generator.writeFieldName(MUTATION);
+                writeMutation(processed.mutation());
+            }
+            ChangeLog changes = processed.changes();
+            if (changes != null) {
+                generator.writeFieldName(FORWARD_PATCH);
+                generator.writeStartArray();
+                for (int i = 0; i < changes.size(); i++) {
+                    writeOperation(changes, i, changes.op(i), true);
+                }
+                generator.writeEndArray();
+
+                // Inverse of the forward patch: each change undone, last change first
+                generator.writeFieldName(BACKWARD_PATCH);
+                generator.writeStartArray();
+                for (int i = changes.size() - 1; i >= 0; i--) {
+                    byte op = switch (changes.op(i)) {
+                        case ChangeLog.ADD -> ChangeLog.REMOVE;
+                        case ChangeLog.REMOVE -> ChangeLog.ADD;
+                        default -> ChangeLog.REPLACE;
+                    };
+                    writeOperation(changes, i, op, false);
+                }
+                generator.writeEndArray();
+            }
+            generator.writeFieldName(CALCULATION_MESSAGE_INDEXES);
+            generator.writeStartArray();
+            for (int id = processed.messageStart(); id < processed.messageEnd(); id++) {
+                generator.writeNumber(id);
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
+
+        private void writeOperation(ChangeLog changes, int i, byte op, boolean forward) throws IOException {
+            generator.writeStartObject();
+            generator.writeFieldName(OP);
+            generator.writeString(OPS[op]);
+            generator.writeFieldName(PATH);
+            writePath(changes.target(i), changes.row(i));
+            if (op != ChangeLog.REMOVE) {
+                generator.writeFieldName(VALUE);
+                writeChangeValue(
+                    changes.target(i),
+                    forward ? changes.newValue(i) : changes.oldValue(i),
+                    forward ? changes.newObject(i) : changes.oldObject(i)
+                );
+            }
+            generator.writeEndObject();
+        }
+
+        private void writePath(byte target, int row) throws IOException {
+            char[] prefix = PATH_PREFIXES[target];
+            System.arraycopy(prefix, 0, pathBuffer, 0, prefix.length);
+            int length = prefix.length;
+            char[] suffix = PATH_SUFFIXES[target];
+            if (suffix != null) {
+                String index = Integer.toString(row);
+                index.getChars(0, index.length(), pathBuffer, length);
+                length += index.length();
+                System.arraycopy(suffix, 0, pathBuffer, length, suffix.length);
+                length += suffix.length;
+            }
+            generator.writeString(pathBuffer, 0, length);
+        }
+
+        private void writeChangeValue(byte target, double value, Object object) throws IOException {
+            switch (target) {
+                case ChangeLog.DOSSIER -> writeDossier((Dossier) object);
+                case ChangeLog.STATUS -> generator.writeString(STATUSES[((DossierStatus) object).ordinal()]);
+                case ChangeLog.RETIREMENT_DATE -> writeEpochDay((int) value);
+                case ChangeLog.POLICY_COUNT -> generator.writeNumber((int) value);
+                case ChangeLog.POLICY -> writePolicy((Policy) object);
+                case ChangeLog.PROJECTIONS -> writeProjections(projections(object));
+                default -> generator.writeNumber(value);
+            }
+        }
+
+        private void writeMutation(CalculationMutation mutation) throws IOException {
+            generator.writeStartObject();
+            writeStringField(MUTATION_ID, mutation.getMutationId());
+            writeStringField(MUTATION_DEFINITION_NAME, mutation.getMutationDefinitionName());
+            writeStringField(MUTATION_TYPE, mutation.getMutationType());
+            writeDateField(ACTUAL_AT, mutation.getActualAt());
+            if (mutation.getMutationProperties() != null) {
+                generator.writeFieldName(MUTATION_PROPERTIES);
+                writeMutationProperties(generator, mutation);
+            }
+            if (mutation instanceof DossierMutation dossierMutation) {
+                writeStringField(DOSSIER_ID, dossierMutation.getDossierId());
+            }
+            generator.writeEndObject();
+        }
+
+        private void writeSnapshot(SituationSnapshot snapshot) throws IOException {
+            generator.writeStartObject();
+            writeStringField(MUTATION_ID, snapshot.mutationId());
+            if (snapshot.mutationIndex() != null) {
+                generator.writeFieldName(MUTATION_INDEX);
+                generator.writeNumber(snapshot.mutationIndex());
+            }
+            writeDateField(ACTUAL_AT, snapshot.actualAt());
+            if (snapshot.situation() != null) {
+                generator.writeFieldName(SITUATION);
+                writeSituation(snapshot.situation());
+            }
+            generator.writeEndObject();
+        }
+
+        private void writeSituation(Situation situation) throws IOException {
+            generator.writeStartObject();
+            if (situation.dossier() != null) {
+                generator.writeFieldName(DOSSIER);
+                writeDossier(situation.dossier());
+            }
+            generator.writeEndObject();
+        }
+
+        private void writeDossier(Dossier dossier) throws IOException {
+            generator.writeStartObject();
+            writeStringField(DOSSIER_ID, dossier.dossierId());
+            if (dossier.status() != null) {
+                generator.writeFieldName(STATUS);
+                generator.writeString(STATUSES[dossier.status().ordinal()]);
+            }
+            writeDateField(RETIREMENT_DATE, dossier.retirementDate());
+            if (dossier.persons() != null) {
+                generator.writeFieldName(PERSONS);
+                generator.writeStartArray();
+                for (Person person : dossier.persons()) {
+                    writePerson(person);
+                }
+                generator.writeEndArray();
+            }
+            List<Policy> policies = dossier.policies();
+            generator.writeFieldName(POLICIES);
+            generator.writeStartArray();
+            for (int i = 0; i < policies.size(); i++) {
+                writePolicy(policies.get(i));
+            }
+            generator.writeEndArray();
+            generator.writeFieldName(POLICY_COUNT);
+            generator.writeNumber(policies.size());
+            generator.writeEndObject();
+        }
+
+        private void writePerson(Person person) throws IOException {
+            generator.writeStartObject();
+            writeStringField(PERSON_ID, person.personId());
+            if (person.role() != null) {
+                generator.writeFieldName(ROLE);
+                generator.writeString(ROLES[person.role().ordinal()]);
+            }
+            writeStringField(NAME, person.name());
+            writeDateField(BIRTH_DATE, person.birthDate());
+            generator.writeEndObject();
+        }
+
+        private void writePolicy(Policy policy) throws IOException {
+            generator.writeStartObject();
+            writeStringField(POLICY_ID, policy.policyId());
+            writeStringField(SCHEME_ID, policy.schemeId());
+            writeDateField(EMPLOYMENT_START_DATE, policy.employmentStartDate());
+            generator.writeFieldName(SALARY);
+            generator.writeNumber(policy.salary());
+            generator.writeFieldName(PART_TIME_FACTOR);
+            generator.writeNumber(policy.partTimeFactor());
+            if (policy.attainablePension() != null) {
+                generator.writeFieldName(ATTAINABLE_PENSION);
+                generator.writeNumber(policy.attainablePension().doubleValue());
+            }
+            if (policy.projections() != null) {
+                generator.writeFieldName(PROJECTIONS);
+                writeProjections(policy.projections());
+            }
+            generator.writeEndObject();
+        }
+
+        private void writeProjections(List<Policy.Projection> projections) throws IOException {
+            generator.writeStartArray();
+            if (projections instanceof ProjectionSeries series) {
+                for (int i = 0; i < series.size(); i++) {
+                    generator.writeStartObject();
+                    generator.writeFieldName(DATE);
+                    writeEpochDay(series.day(i));
+                    generator.writeFieldName(PROJECTED_PENSION);
+                    generator.writeNumber(series.projectedPension(i));
+                    generator.writeEndObject();
+                }
+            } else {
+                for (Policy.Projection projection : projections) {
+                    generator.writeStartObject();
+                    writeDateField(DATE, projection.date());
+                    generator.writeFieldName(PROJECTED_PENSION);
+                    generator.writeNumber(projection.projectedPension());
+                    generator.writeEndObject();
+                }
+            }
+            generator.writeEndArray();
+        }
+
+        @SuppressWarnings("unchecked")
+        private static List<Policy.Projection> projections(Object object) {
+            return (List<Policy.Projection>) object;
+        }
+
+        private void writeStringField(SerializableString field, String value) throws IOException {
+            if (value != null) {
+                generator.writeFieldName(field);
+                generator.writeString(value);
+            }
+        }
+
+        private void writeInstantField(SerializableString field, Instant value) throws IOException {
+            if (value != null) {
+                generator.writeFieldName(field);
+                generator.writeString(CoarseClock.format(value));
+            }
+        }
+
+        private void writeDateField(SerializableString field, LocalDate value) throws IOException {
+            if (value == null) {
+                return;
+            }
+            generator.writeFieldName(field);
+            writeEpochDay(value.toEpochDay());
+        }
+
+        /**
+         * Formats into the scratch buffer; years outside {@code 0000-9999} take {@link LocalDate#toString()}'s
+         * signed form, as Jackson would write them.
+         */
+        private void writeEpochDay(long epochDay) throws IOException {
+            if (epochDay < MIN_FORMATTED_DAY || epochDay > MAX_FORMATTED_DAY) {
+                generator.writeString(LocalDate.ofEpochDay(epochDay).toString());
+                return;
+            }
+            EpochDays.format((int) epochDay, dateBuffer, 0);
+            generator.writeString(dateBuffer, 0, dateBuffer.length);
+        }
+    }
+}
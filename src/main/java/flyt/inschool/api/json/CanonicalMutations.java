@@ -0,0 +1,56 @@
+package flyt.inschool.api.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import flyt.inschool.api.dto.CalculationMutation;
+import flyt.inschool.api.dto.DossierMutation;
+
+import java.io.IOException;
+
+/**
+ * Canonical JSON of a mutation for cache keys, with the envelope in a fixed order. {@link #write} covers everything
+ * a response echoes, the properties exactly as they arrived; {@link #writeEffect} only what changes the situation,
+ * with the typed properties as they write themselves, so mutations hash alike regardless of the field order or
+ * number formatting of their properties.
+ */
+public final class CanonicalMutations {
+
+    private CanonicalMutations() {
+    }
+
+    public static void write(JsonGenerator generator, CalculationMutation mutation) throws IOException {
+        generator.writeStartArray();
+        generator.writeString(mutation.getMutationId());
+        generator.writeString(mutation.getMutationDefinitionName());
+        generator.writeString(mutation.getMutationType());
+        generator.writeString(mutation.getActualAt() != null ? mutation.getActualAt().toString() : null);
+        generator.writeString(mutation instanceof DossierMutation dossier ? dossier.getDossierId() : null);
+        if (mutation.getMutationProperties() != null) {
+            CalculationResponseWriter.writeMutationProperties(generator, mutation);
+        } else {
+            generator.writeNull();
+        }
+        generator.writeEndArray();
+    }
+
+    /**
+     * The definition name, dossier id and typed properties; ids, types and {@code actual_at} dates are left out, as
+     * processing does not depend on them, so mutations resent under fresh ids still match.
+     */
+    public static void writeEffect(JsonGenerator generator, CalculationMutation mutation) throws IOException {
+        generator.writeStartArray();
+        generator.writeString(mutation.getMutationDefinitionName());
+        generator.writeString(mutation instanceof DossierMutation dossier ? dossier.getDossierId() : null);
+        writeProperties(generator, mutation);
+        generator.writeEndArray();
+    }
+
+    private static void writeProperties(JsonGenerator generator, CalculationMutation mutation) throws IOException {
+        if (mutation.getMutationProperties() != null) {
+            generator.writeStartObject();
+            mutation.getMutationProperties().writeFields(generator);
+            generator.writeEndObject();
+        } else {
+            generator.writeNull();
+        }
+    }
+}
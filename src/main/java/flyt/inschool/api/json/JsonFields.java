@@ -0,0 +1,74 @@
+package flyt.inschool.api.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import flyt.inschool.util.EpochDays;
+
+import java.io.IOException;
+
+/**
+ * Streaming helpers shared by the typed mutation property readers and writers.
+ */
+public final class JsonFields {
+
+    private JsonFields() {
+    }
+
+    /**
+     * Reads the current date token straight from the parser's character buffer.
+     */
+    public static int readEpochDay(JsonParser parser) throws IOException {
+        if (parser.currentToken() == JsonToken.VALUE_NULL) {
+            return EpochDays.NONE;
+        }
+        if (parser.currentToken() != JsonToken.VALUE_STRING) {
+            throw new JsonParseException(parser, "Expected a yyyy-MM-dd date string");
+        }
+        try {
+            return EpochDays.parse(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+        } catch (IllegalArgumentException e) {
+            throw new JsonParseException(parser, e.getMessage());
+        }
+    }
+
+    public static double readDouble(JsonParser parser) throws IOException {
+        if (!parser.currentToken().isNumeric()) {
+            throw new JsonParseException(parser, "Expected a number");
+        }
+        return parser.getDoubleValue();
+    }
+
+    public static int readInt(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.VALUE_NUMBER_INT) {
+            throw new JsonParseException(parser, "Expected an integer");
+        }
+        return parser.getIntValue();
+    }
+
+    public static void requireField(JsonParser parser, boolean present, String field) throws IOException {
+        if (!present) {
+            throw new JsonParseException(parser, "Missing required mutation property: " + field);
+        }
+    }
+
+    public static void writeEpochDayField(JsonGenerator generator, String field, int epochDay) throws IOException {
+        if (epochDay != EpochDays.NONE) {
+            generator.writeStringField(field, EpochDays.format(epochDay));
+        }
+    }
+
+    /**
+     * Whole numbers are written without a fraction, so {@code 50000} and {@code 50000.0} have the same canonical
+     * form.
+     */
+    public static void writeNumberField(JsonGenerator generator, String field, double value) throws IOException {
+        generator.writeFieldName(field);
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            generator.writeNumber((long) value);
+        } else {
+            generator.writeNumber(value);
+        }
+    }
+}
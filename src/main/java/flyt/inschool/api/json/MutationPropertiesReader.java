@@ -0,0 +1,15 @@
+package flyt.inschool.api.json;
+
+import com.fasterxml.jackson.core.JsonParser;
+import flyt.inschool.api.dto.MutationProperties;
+
+import java.io.IOException;
+
+/**
+ * Reads the {@code mutation_properties} object of one mutation type. The parser is positioned on the object's
+ * {@code START_OBJECT} token and must be left on its matching {@code END_OBJECT}.
+ */
+@FunctionalInterface
+public interface MutationPropertiesReader {
+    MutationProperties read(JsonParser parser) throws IOException;
+}
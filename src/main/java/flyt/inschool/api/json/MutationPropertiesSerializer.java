@@ -0,0 +1,25 @@
+package flyt.inschool.api.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import flyt.inschool.api.dto.MutationProperties;
+
+import java.io.IOException;
+
+public class MutationPropertiesSerializer extends StdSerializer<MutationProperties> {
+
+    private static final long serialVersionUID = 1L;
+
+    public MutationPropertiesSerializer() {
+        super(MutationProperties.class);
+    }
+
+    @Override
+    public void serialize(MutationProperties properties, JsonGenerator generator, SerializerProvider provider)
+        throws IOException {
+        generator.writeStartObject();
+        properties.writeFields(generator);
+        generator.writeEndObject();
+    }
+}
@@ -0,0 +1,75 @@
+package flyt.inschool.bulk;
+
+import flyt.inschool.workload.WorkloadGenerator;
+import io.quarkus.runtime.Quarkus;
+import io.quarkus.runtime.QuarkusApplication;
+import io.quarkus.runtime.annotations.QuarkusMain;
+import jakarta.inject.Inject;
+import org.jboss.logging.Logger;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Serves HTTP as usual, unless started with a command, after which it exits:
+ * <ul>
+ *     <li>{@code bulk <input.jsonl> <output.jsonl> [--no-patches]} calculates the input file with
+ *     {@link BulkProcessor} and reports the throughput;</li>
+ *     <li>{@code generate <output.jsonl> <requests> [name=value ...]} writes a request corpus with
+ *     {@link WorkloadGenerator}, the values overriding {@link WorkloadGenerator.Profile#DEFAULT}.</li>
+ * </ul>
+ * Add {@code -Dquarkus.http.host-enabled=false} to skip opening the HTTP port for a command.
+ */
+@QuarkusMain
+public class BulkMain implements QuarkusApplication {
+
+    private static final Logger LOG = Logger.getLogger(BulkMain.class);
+
+    @Inject
+    BulkProcessor bulkProcessor;
+
+    @Override
+    public int run(String... args) throws Exception {
+        if (args.length > 0 && args[0].equals("generate")) {
+            return generate(args);
+        }
+        if (args.length == 0 || !args[0].equals("bulk")) {
+            Quarkus.waitForExit();
+            return 0;
+        }
+        if (args.length < 3 || args.length > 4 || (args.length == 4 && !args[3].equals("--no-patches"))) {
+            LOG.error("Usage: bulk <input.jsonl> <output.jsonl> [--no-patches]");
+            return 2;
+        }
+
+        BulkProcessor.Summary summary = bulkProcessor.process(Path.of(args[1]), Path.of(args[2]), args.length == 3);
+        LOG.infof("Calculated %d requests (%d failed) in %.3f s: %.0f requests/s, %.1f MB/s in, %.1f MB/s out",
+            summary.requests(), summary.failedRequests(), summary.nanos() / 1e9, summary.requestsPerSecond(),
+            summary.inputMegabytesPerSecond(), summary.outputMegabytesPerSecond());
+        return summary.failedRequests() == 0 ? 0 : 1;
+    }
+
+    private static int generate(String... args) throws IOException {
+        WorkloadGenerator.Profile profile;
+        long requests;
+        try {
+            if (args.length < 3) {
+                throw new IllegalArgumentException("Missing arguments");
+            }
+            requests = Long.parseLong(args[2]);
+            profile = WorkloadGenerator.Profile.parse(Arrays.asList(args).subList(3, args.length));
+        } catch (IllegalArgumentException e) {
+            LOG.errorf("%s; usage: generate <output.jsonl> <requests> [name=value ...]", e.getMessage());
+            return 2;
+        }
+
+        try (OutputStream out = Files.newOutputStream(Path.of(args[1]))) {
+            new WorkloadGenerator(profile).write(requests, out);
+        }
+        LOG.infof("Generated %d requests into %s with %s", requests, args[1], profile);
+        return 0;
+    }
+}
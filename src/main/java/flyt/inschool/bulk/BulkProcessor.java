@@ -0,0 +1,276 @@
+package flyt.inschool.bulk;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import flyt.inschool.api.dto.BatchResponseLine;
+import flyt.inschool.api.dto.CalculationRequest;
+import flyt.inschool.api.dto.ErrorResponse;
+import flyt.inschool.api.json.BatchResponseLineWriter;
+import flyt.inschool.metrics.CalculationMetrics;
+import flyt.inschool.service.CalculationService;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Calculates a newline-delimited file of calculation requests into a file of {@link BatchResponseLine}s, as the
+ * batch endpoint would stream them, with {@code index} being the request's zero-based line number. The input is
+ * memory-mapped and cut on line boundaries into a few chunks per thread; each thread parses lines straight from
+ * its mapping and appends its output to the shared channel in large blocks, so output lines are grouped by chunk
+ * rather than in input order.
+ */
+@ApplicationScoped
+public class BulkProcessor {
+
+    private static final int CHUNKS_PER_THREAD = 4;
+    // Keeps every chunk within a single mapping
+    private static final long MAX_CHUNK_BYTES = 1L << 30;
+    private static final int OUTPUT_BLOCK_BYTES = 1 << 20;
+
+    @ConfigProperty(name = "calculation.bulk.threads", defaultValue = "0")
+    int threads;
+
+    @Inject
+    CalculationService calculationService;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @Inject
+    CalculationMetrics metrics;
+
+    public record Summary(long requests, long failedRequests, long inputBytes, long outputBytes, long nanos) {
+
+        public double requestsPerSecond() {
+            return requests * 1e9 / nanos;
+        }
+
+        public double inputMegabytesPerSecond() {
+            return inputBytes * 1e9 / nanos / (1 << 20);
+        }
+
+        public double outputMegabytesPerSecond() {
+            return outputBytes * 1e9 / nanos / (1 << 20);
+        }
+    }
+
+    private record Chunk(long start, long end, long firstLine) {
+    }
+
+    public Summary process(Path input, Path output, boolean includePatches) throws IOException, InterruptedException {
+        long startedAt = System.nanoTime();
+        int threadCount = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+
+        try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(output, StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+                 StandardOpenOption.TRUNCATE_EXISTING);
+             ExecutorService pool = Executors.newFixedThreadPool(threadCount)) {
+
+            long size = in.size();
+            long[] bounds = lineBounds(in, size, Math.max(threadCount * CHUNKS_PER_THREAD,
+                (int) ((size + MAX_CHUNK_BYTES - 1) / MAX_CHUNK_BYTES)));
+            List<Chunk> chunks = numberLines(in, bounds, pool);
+
+            AtomicLong requests = new AtomicLong();
+            AtomicLong failedRequests = new AtomicLong();
+            List<Future<?>> tasks = new ArrayList<>(chunks.size());
+            for (Chunk chunk : chunks) {
+                tasks.add(pool.submit(() -> {
+                    processChunk(in, out, chunk, includePatches, requests, failedRequests);
+                    return null;
+                }));
+            }
+            await(tasks);
+
+            return new Summary(requests.get(), failedRequests.get(), size, out.size(), System.nanoTime() - startedAt);
+        }
+    }
+
+    /**
+     * Offsets cutting the file into about {@code chunkCount} parts, each moved forward to just past a newline.
+     */
+    private static long[] lineBounds(FileChannel in, long size, int chunkCount) throws IOException {
+        long[] bounds = new long[chunkCount + 1];
+        ByteBuffer probe = ByteBuffer.allocate(4096);
+        for (int i = 1; i < chunkCount; i++) {
+            long position = Math.max(size * i / chunkCount, bounds[i - 1]);
+            bounds[i] = position < size ? nextLineStart(in, position, size, probe) : size;
+        }
+        bounds[chunkCount] = size;
+        return bounds;
+    }
+
+    private static long nextLineStart(FileChannel in, long position, long size, ByteBuffer probe) throws IOException {
+        while (position < size) {
+            probe.clear();
+            int read = in.read(probe, position);
+            for (int i = 0; i < read; i++) {
+                if (probe.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    /**
+     * Counts the lines of every chunk in parallel to know the line number each chunk starts at.
+     */
+    private static List<Chunk> numberLines(FileChannel in, long[] bounds, ExecutorService pool)
+        throws InterruptedException {
+        List<Future<Long>> counts = new ArrayList<>(bounds.length - 1);
+        for (int i = 0; i + 1 < bounds.length; i++) {
+            long start = bounds[i];
+            long end = bounds[i + 1];
+            counts.add(pool.submit(() -> {
+                MappedByteBuffer buffer = in.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+                long lines = 0;
+                for (int j = 0; j < buffer.limit(); j++) {
+                    if (buffer.get(j) == '\n') {
+                        lines++;
+                    }
+                }
+                return lines;
+            }));
+        }
+
+        List<Chunk> chunks = new ArrayList<>(counts.size());
+        long line = 0;
+        for (int i = 0; i < counts.size(); i++) {
+            if (bounds[i] < bounds[i + 1]) {
+                chunks.add(new Chunk(bounds[i], bounds[i + 1], line));
+            }
+            line += await(counts.get(i));
+        }
+        return chunks;
+    }
+
+    private void processChunk(FileChannel in, FileChannel out, Chunk chunk, boolean includePatches,
+                              AtomicLong requests, AtomicLong failedRequests) throws IOException {
+        MappedByteBuffer buffer = in.map(FileChannel.MapMode.READ_ONLY, chunk.start(), chunk.end() - chunk.start());
+        ObjectReader reader = objectMapper.readerFor(CalculationRequest.class);
+        OutputBlock block = new OutputBlock();
+        byte[] line = new byte[8192];
+
+        long lineNumber = chunk.firstLine();
+        int position = 0;
+        int limit = buffer.limit();
+        while (position < limit) {
+            int end = position;
+            while (end < limit && buffer.get(end) != '\n') {
+                end++;
+            }
+            int length = end - position;
+            if (length > line.length) {
+                line = new byte[Math.max(length, line.length * 2)];
+            }
+            buffer.get(position, line, 0, length);
+            position = end + 1;
+
+            if (!isBlank(line, length)) {
+                BatchResponseLine response = calculate(reader, line, length, lineNumber, includePatches);
+                requests.incrementAndGet();
+                if (response.status() != 200) {
+                    failedRequests.incrementAndGet();
+                }
+                long serializeStartedAt = System.nanoTime();
+                BatchResponseLineWriter.write(response, block, objectMapper);
+                metrics.recordPhase(CalculationMetrics.Phase.SERIALIZE, System.nanoTime() - serializeStartedAt);
+                block.write('\n');
+                if (block.size() >= OUTPUT_BLOCK_BYTES) {
+                    block.drainTo(out);
+                }
+            }
+            lineNumber++;
+        }
+        block.drainTo(out);
+    }
+
+    private BatchResponseLine calculate(ObjectReader reader, byte[] line, int length, long index,
+                                        boolean includePatches) {
+        CalculationRequest request;
+        long startedAt = System.nanoTime();
+        try {
+            request = reader.readValue(line, 0, length);
+        } catch (IOException e) {
+            return new BatchResponseLine(index, 400, null, new ErrorResponse(400, "Invalid request: " + e.getMessage()));
+        }
+        metrics.recordPhase(CalculationMetrics.Phase.DESERIALIZE, System.nanoTime() - startedAt);
+
+        ErrorResponse invalid = CalculationService.validate(request);
+        if (invalid != null) {
+            return new BatchResponseLine(index, invalid.status(), null, invalid);
+        }
+        try {
+            return new BatchResponseLine(index, 200, calculationService.process(request, includePatches), null);
+        } catch (Exception e) {
+            return new BatchResponseLine(index, 500, null,
+                new ErrorResponse(500, "Internal server error: " + e.getMessage()));
+        }
+    }
+
+    private static boolean isBlank(byte[] line, int length) {
+        for (int i = 0; i < length; i++) {
+            byte b = line[i];
+            if (b != ' ' && b != '\t' && b != '\r') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static <T> T await(Future<T> future) throws InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw new UncheckedIOException(io);
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private static void await(List<Future<?>> futures) throws InterruptedException {
+        for (Future<?> future : futures) {
+            await(future);
+        }
+    }
+
+    /**
+     * Thread-local output collected until it is worth a write; the generator's closing of the stream is ignored.
+     */
+    private static final class OutputBlock extends ByteArrayOutputStream {
+
+        OutputBlock() {
+            super(OUTPUT_BLOCK_BYTES + (OUTPUT_BLOCK_BYTES >> 2));
+        }
+
+        void drainTo(FileChannel out) throws IOException {
+            ByteBuffer bytes = ByteBuffer.wrap(buf, 0, count);
+            // Appends of different threads must not interleave
+            synchronized (out) {
+                while (bytes.hasRemaining()) {
+                    out.write(bytes);
+                }
+            }
+            reset();
+        }
+    }
+}
@@ -1,10 +1,11 @@
 package flyt.inschool.domain;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import flyt.inschool.util.PersistentVector;
 
 import java.time.LocalDate;
-import java.util.ArrayList;
 import java.util.List;
 
 @JsonInclude(JsonInclude.Include.NON_NULL)
@@ -13,24 +14,15 @@ public record Dossier(
     @JsonProperty("status") DossierStatus status,
     @JsonProperty("retirement_date") LocalDate retirementDate,
     @JsonProperty("persons") List<Person> persons,
-    @JsonProperty("policies") List<Policy> policies
+    @JsonProperty("policies") List<Policy> policies,
+    @JsonIgnore PolicyKeyIndex policyKeyIndex
 ) {
-    public Dossier withStatus(DossierStatus newStatus) {
-        return new Dossier(dossierId, newStatus, retirementDate, persons, policies);
-    }
-
-    public Dossier withRetirement(LocalDate retirementDate) {
-        return new Dossier(dossierId, DossierStatus.RETIRED, retirementDate, persons, policies);
+    public Dossier {
+        policies = PersistentVector.from(policies);
     }
 
-    public Dossier addPolicy(Policy policy) {
-        List<Policy> updatedPolicies = new ArrayList<>(policies);
-        updatedPolicies.add(policy);
-        return new Dossier(dossierId, status, retirementDate, persons, updatedPolicies);
-    }
-
-    public Dossier updatePolicies(List<Policy> updatedPolicies) {
-        return new Dossier(dossierId, status, retirementDate, persons, updatedPolicies);
+    public Dossier withStatus(DossierStatus newStatus) {
+        return new Dossier(dossierId, newStatus, retirementDate, persons, policies, policyKeyIndex);
     }
 
     public int getPolicyCount() {
@@ -0,0 +1,109 @@
+package flyt.inschool.domain;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing index of (scheme_id, employment_start_date) keys shared along a chain of dossiers.
+ * Each key maps to the position of the first policy that introduced it, so a dossier holding the first
+ * {@code n} policies only sees entries below {@code n} and older dossiers stay unaffected by later appends.
+ */
+public final class PolicyKeyIndex {
+
+    private static final long EMPTY = Long.MIN_VALUE;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private long[] keys;
+    private int[] positions;
+    private int size;
+    private int coveredPolicies;
+
+    private PolicyKeyIndex(int capacity) {
+        keys = new long[capacity];
+        positions = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+    }
+
+    public static PolicyKeyIndex empty() {
+        return new PolicyKeyIndex(INITIAL_CAPACITY);
+    }
+
+    public static long key(int schemeOrdinal, int employmentStartDay) {
+        return ((long) schemeOrdinal << 32) | (employmentStartDay & 0xFFFFFFFFL);
+    }
+
+    public boolean contains(long key, int policyCount) {
+        int slot = slotOf(key);
+        return keys[slot] != EMPTY && positions[slot] < policyCount;
+    }
+
+    /**
+     * Records the key of the policy appended at {@code policyCount}. Appends in place when the caller owns the
+     * tip of the chain, otherwise (a stale dossier forking the chain) copies the visible prefix first.
+     */
+    public PolicyKeyIndex append(long key, int policyCount) {
+        PolicyKeyIndex target = coveredPolicies == policyCount ? this : copyOf(policyCount);
+        target.putIfAbsent(key, policyCount);
+        target.coveredPolicies = policyCount + 1;
+        return target;
+    }
+
+    /**
+     * Private copy of the entries visible to the first {@code policyCount} policies, for a new owner that will
+     * append to it while other dossiers may still share this one.
+     */
+    public PolicyKeyIndex fork(int policyCount) {
+        return copyOf(policyCount);
+    }
+
+    private PolicyKeyIndex copyOf(int policyCount) {
+        PolicyKeyIndex copy = new PolicyKeyIndex(keys.length);
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != EMPTY && positions[i] < policyCount) {
+                copy.putIfAbsent(keys[i], positions[i]);
+            }
+        }
+        copy.coveredPolicies = policyCount;
+        return copy;
+    }
+
+    private void putIfAbsent(long key, int position) {
+        int slot = slotOf(key);
+        if (keys[slot] != EMPTY) {
+            return;
+        }
+        keys[slot] = key;
+        positions[slot] = position;
+        if (++size * 2 > keys.length) {
+            rehash();
+        }
+    }
+
+    private void rehash() {
+        long[] oldKeys = keys;
+        int[] oldPositions = positions;
+        keys = new long[oldKeys.length * 2];
+        positions = new int[oldKeys.length * 2];
+        Arrays.fill(keys, EMPTY);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = slotOf(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                positions[slot] = oldPositions[i];
+            }
+        }
+    }
+
+    private int slotOf(long key) {
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        while (keys[slot] != EMPTY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
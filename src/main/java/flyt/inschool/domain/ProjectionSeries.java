@@ -0,0 +1,44 @@
+package flyt.inschool.domain;
+
+import java.time.LocalDate;
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+/**
+ * Immutable projections of one policy, backed by columns shared by all policies of a projection run: the
+ * projection dates as epoch days and a policy-major matrix of projected pensions. {@link Policy.Projection}
+ * records are only created when elements are requested; the response writer reads the columns directly.
+ */
+public final class ProjectionSeries extends AbstractList<Policy.Projection> implements RandomAccess {
+
+    private final int[] days;
+    private final double[] pensions;
+    private final int offset;
+
+    /**
+     * @param offset index in {@code pensions} of this policy's pension on {@code days[0]}
+     */
+    public ProjectionSeries(int[] days, double[] pensions, int offset) {
+        this.days = days;
+        this.pensions = pensions;
+        this.offset = offset;
+    }
+
+    public int day(int index) {
+        return days[index];
+    }
+
+    public double projectedPension(int index) {
+        return pensions[offset + index];
+    }
+
+    @Override
+    public Policy.Projection get(int index) {
+        return new Policy.Projection(LocalDate.ofEpochDay(days[index]), pensions[offset + index]);
+    }
+
+    @Override
+    public int size() {
+        return days.length;
+    }
+}
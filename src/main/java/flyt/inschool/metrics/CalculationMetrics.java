@@ -0,0 +1,123 @@
+package flyt.inschool.metrics;
+
+import flyt.inschool.api.dto.MessageLevel;
+import flyt.inschool.validation.MessageCode;
+import flyt.inschool.validation.MessageLog;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency timers and counters of the calculation engine. Every meter is registered once and looked up without
+ * building tags, so recording on the request path allocates nothing. Timers take {@link System#nanoTime()}
+ * differences and publish HdrHistogram-backed percentiles next to their Prometheus histogram buckets.
+ */
+@ApplicationScoped
+public class CalculationMetrics {
+
+    public enum Phase {
+        DESERIALIZE,
+        EXECUTE,
+        BUILD_RESPONSE,
+        SERIALIZE
+    }
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    private final Timer[] phaseTimers = new Timer[Phase.values().length];
+    private final Map<String, Timer> mutationTimers = new ConcurrentHashMap<>();
+    private final Counter[][] messageCounters = new Counter[MessageLevel.values().length][MessageCode.values().length];
+    private Timer registryWait;
+    private DistributionSummary policiesPerDossier;
+
+    public CalculationMetrics() {
+    }
+
+    /**
+     * Metrics registered in {@code meterRegistry} straight away, for use outside the container.
+     */
+    public CalculationMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        register();
+    }
+
+    @PostConstruct
+    void init() {
+        register();
+    }
+
+    private void register() {
+        for (Phase phase : Phase.values()) {
+            phaseTimers[phase.ordinal()] = timer("calculation.phase.time", "Time spent in a phase of a calculation")
+                .tag("phase", phase.name().toLowerCase())
+                .register(meterRegistry);
+        }
+        for (MessageLevel level : MessageLevel.values()) {
+            for (MessageCode code : MessageCode.values()) {
+                messageCounters[level.ordinal()][code.ordinal()] = Counter.builder("calculation.messages")
+                    .description("Validation messages in calculation results")
+                    .tag("level", level.name())
+                    .tag("code", code.name())
+                    .register(meterRegistry);
+            }
+        }
+        registryWait = timer("calculation.registry.wait.time",
+            "Time a calculation waits for scheme registry lookups to complete")
+            .register(meterRegistry);
+        policiesPerDossier = DistributionSummary.builder("calculation.dossier.policies")
+            .description("Policies in the end situation's dossier")
+            .publishPercentiles(0.5, 0.95, 0.99)
+            .register(meterRegistry);
+    }
+
+    public void recordPhase(Phase phase, long nanos) {
+        phaseTimers[phase.ordinal()].record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordMutation(String mutationDefinitionName, long nanos) {
+        Timer timer = mutationTimers.get(mutationDefinitionName);
+        if (timer == null) {
+            timer = mutationTimers.computeIfAbsent(mutationDefinitionName, this::mutationTimer);
+        }
+        timer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordRegistryWait(long nanos) {
+        registryWait.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordPolicies(int policyCount) {
+        policiesPerDossier.record(policyCount);
+    }
+
+    public void countMessages(MessageLog messages) {
+        for (int i = 0; i < messages.size(); i++) {
+            messageCounters[messages.levelOrdinal(i)][messages.codeOrdinal(i)].increment();
+        }
+    }
+
+    private Timer mutationTimer(String mutationDefinitionName) {
+        return timer("calculation.mutation.time", "Time a mutation processor takes")
+            .tag("mutation", mutationDefinitionName)
+            .register(meterRegistry);
+    }
+
+    private static Timer.Builder timer(String name, String description) {
+        return Timer.builder(name)
+            .description(description)
+            .publishPercentiles(0.5, 0.95, 0.99)
+            .publishPercentileHistogram()
+            .minimumExpectedValue(Duration.ofNanos(1_000))
+            .maximumExpectedValue(Duration.ofSeconds(10));
+    }
+}
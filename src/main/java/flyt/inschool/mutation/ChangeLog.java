@@ -0,0 +1,175 @@
+package flyt.inschool.mutation;
+
+import flyt.inschool.domain.Dossier;
+import flyt.inschool.domain.DossierStatus;
+import flyt.inschool.domain.Policy;
+import flyt.inschool.util.EpochDays;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * RFC 6902 operations a processor applied to the situation, in order, kept as parallel primitive columns: an op
+ * code, a target (which, with the policy row, determines the path) and the new and overwritten values. Numeric
+ * values, epoch days and counts live in the {@code double} columns; dossiers, policies, projections and enums in
+ * the object columns. The response writer serializes the forward patch and its inverse (the backward patch)
+ * straight from these columns.
+ */
+public class ChangeLog {
+
+    public static final byte ADD = 0;
+    public static final byte REMOVE = 1;
+    public static final byte REPLACE = 2;
+
+    public static final byte DOSSIER = 0;
+    public static final byte STATUS = 1;
+    public static final byte RETIREMENT_DATE = 2;
+    public static final byte POLICY_COUNT = 3;
+    public static final byte POLICY = 4;
+    public static final byte SALARY = 5;
+    public static final byte ATTAINABLE_PENSION = 6;
+    public static final byte PROJECTIONS = 7;
+
+    /**
+     * Shared log for requests that opted out of patches; it records nothing.
+     */
+    public static final ChangeLog DISABLED = new ChangeLog(false);
+
+    private static final int INITIAL_CAPACITY = 4;
+
+    private final boolean enabled;
+    private int size;
+    private byte[] ops;
+    private byte[] targets;
+    private int[] rows;
+    private double[] oldValues;
+    private double[] newValues;
+    private Object[] oldObjects;
+    private Object[] newObjects;
+
+    public ChangeLog() {
+        this(true);
+    }
+
+    private ChangeLog(boolean enabled) {
+        this.enabled = enabled;
+        int capacity = enabled ? INITIAL_CAPACITY : 0;
+        ops = new byte[capacity];
+        targets = new byte[capacity];
+        rows = new int[capacity];
+        oldValues = new double[capacity];
+        newValues = new double[capacity];
+        oldObjects = new Object[capacity];
+        newObjects = new Object[capacity];
+    }
+
+    /**
+     * Whether changes are recorded; processors check this before capturing values only a patch needs.
+     */
+    public boolean enabled() {
+        return enabled;
+    }
+
+    public void addDossier(Dossier dossier) {
+        append(ADD, DOSSIER, -1, Double.NaN, Double.NaN, null, dossier);
+    }
+
+    public void replaceStatus(DossierStatus oldStatus, DossierStatus newStatus) {
+        append(REPLACE, STATUS, -1, Double.NaN, Double.NaN, oldStatus, newStatus);
+    }
+
+    /**
+     * Adds the date if there was none ({@link EpochDays#NONE}), replaces it otherwise.
+     */
+    public void setRetirementDate(int oldDay, int newDay) {
+        append(oldDay == EpochDays.NONE ? ADD : REPLACE, RETIREMENT_DATE, -1, oldDay, newDay, null, null);
+    }
+
+    public void replacePolicyCount(int oldCount, int newCount) {
+        append(REPLACE, POLICY_COUNT, -1, oldCount, newCount, null, null);
+    }
+
+    public void addPolicy(int row, Policy policy) {
+        append(ADD, POLICY, row, Double.NaN, Double.NaN, null, policy);
+    }
+
+    public void replaceSalary(int row, double oldSalary, double newSalary) {
+        append(REPLACE, SALARY, row, oldSalary, newSalary, null, null);
+    }
+
+    /**
+     * Adds the pension if there was none ({@code NaN}), replaces it otherwise.
+     */
+    public void setAttainablePension(int row, double oldPension, double newPension) {
+        append(Double.isNaN(oldPension) ? ADD : REPLACE, ATTAINABLE_PENSION, row, oldPension, newPension, null, null);
+    }
+
+    /**
+     * Adds the projections if there were none, replaces them otherwise.
+     */
+    public void setProjections(int row, List<Policy.Projection> oldProjections, List<Policy.Projection> newProjections) {
+        append(oldProjections == null ? ADD : REPLACE, PROJECTIONS, row, Double.NaN, Double.NaN, oldProjections,
+            newProjections);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public byte op(int i) {
+        return ops[i];
+    }
+
+    public byte target(int i) {
+        return targets[i];
+    }
+
+    public int row(int i) {
+        return rows[i];
+    }
+
+    public double oldValue(int i) {
+        return oldValues[i];
+    }
+
+    public double newValue(int i) {
+        return newValues[i];
+    }
+
+    public Object oldObject(int i) {
+        return oldObjects[i];
+    }
+
+    public Object newObject(int i) {
+        return newObjects[i];
+    }
+
+    private void append(byte op, byte target, int row, double oldValue, double newValue,
+                        Object oldObject, Object newObject) {
+        if (!enabled) {
+            return;
+        }
+        if (size == ops.length) {
+            grow();
+        }
+        ops[size] = op;
+        targets[size] = target;
+        rows[size] = row;
+        oldValues[size] = oldValue;
+        newValues[size] = newValue;
+        oldObjects[size] = oldObject;
+        newObjects[size] = newObject;
+        size++;
+    }
+
+    private void grow() {
+        int capacity = ops.length * 2;
+        ops = Arrays.copyOf(ops, capacity);
+        targets = Arrays.copyOf(targets, capacity);
+        rows = Arrays.copyOf(rows, capacity);
+        oldValues = Arrays.copyOf(oldValues, capacity);
+        newValues = Arrays.copyOf(newValues, capacity);
+        oldObjects = Arrays.copyOf(oldObjects, capacity);
+        newObjects = Arrays.copyOf(newObjects, capacity);
+    }
+}
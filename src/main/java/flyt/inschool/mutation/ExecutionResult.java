@@ -13,6 +13,8 @@ public record ExecutionResult(
 ) {
     public record MutationWithMessages(
         CalculationMutation mutation,
-        List<Integer> messageIndexes
+        int messageStart,
+        int messageEnd,
+        ChangeLog changes
     ) {}
 }
@@ -1,13 +1,15 @@
 package flyt.inschool.mutation;
 
 import flyt.inschool.api.dto.CalculationMutation;
-import flyt.inschool.domain.Situation;
+import flyt.inschool.registry.SchemeLookups;
 import flyt.inschool.validation.ValidationContext;
 
 public record MutationContext(
-    Situation currentSituation,
+    WorkingSituation situation,
     CalculationMutation mutation,
     ValidationContext validationContext,
-    int mutationIndex
+    int mutationIndex,
+    ChangeLog changes,
+    SchemeLookups schemeLookups
 ) {
 }
@@ -2,13 +2,14 @@ package flyt.inschool.mutation;
 
 import flyt.inschool.api.dto.CalculationMutation;
 import flyt.inschool.domain.Situation;
+import flyt.inschool.metrics.CalculationMetrics;
+import flyt.inschool.registry.SchemeLookups;
 import flyt.inschool.validation.ValidationContext;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.IntStream;
 
 @ApplicationScoped
 public class MutationExecutor {
@@ -16,12 +17,55 @@ public class MutationExecutor {
     @Inject
     MutationRegistry registry;
 
-    public ExecutionResult execute(List<CalculationMutation> mutations, ValidationContext validationContext) {
-        Situation initialSituation = new Situation(null);
-        Situation currentSituation = initialSituation;
+    @Inject
+    PrefixCache prefixCache;
+
+    @Inject
+    CalculationMetrics metrics;
+
+    public MutationExecutor() {
+    }
+
+    public MutationExecutor(MutationRegistry registry, PrefixCache prefixCache, CalculationMetrics metrics) {
+        this.registry = registry;
+        this.prefixCache = prefixCache;
+        this.metrics = metrics;
+    }
+
+    /**
+     * @param recordChanges whether processors record their changes for the response's JSON patches
+     * @param schemes       the registry lookups started for the request's schemes
+     */
+    public ExecutionResult execute(List<CalculationMutation> mutations, ValidationContext validationContext,
+                                   boolean recordChanges, SchemeLookups schemes) {
+        Situation initialSituation = WorkingSituation.EMPTY;
         List<ExecutionResult.MutationWithMessages> processedMutations = new ArrayList<>();
 
-        for (int i = 0; i < mutations.size(); i++) {
+        PrefixCache.Key[] prefixKeys = prefixCache.enabled() ? prefixCache.keys(mutations, recordChanges) : null;
+        PrefixCache.Entry cached = prefixKeys != null ? prefixCache.longest(prefixKeys) : null;
+        WorkingSituation situation;
+        int start = 0;
+        if (cached == null) {
+            situation = new WorkingSituation();
+        } else {
+            situation = WorkingSituation.from(cached.situation());
+            validationContext.replay(cached.messages());
+            for (ExecutionResult.MutationWithMessages processed : cached.processedMutations()) {
+                processedMutations.add(new ExecutionResult.MutationWithMessages(
+                    mutations.get(start++),
+                    processed.messageStart(),
+                    processed.messageEnd(),
+                    processed.changes()
+                ));
+            }
+        }
+        // Prefixes stored once the run no longer appends to their policy key index: the one before the last
+        // mutation, which requests varying only that mutation resume from, and the whole run, which longer requests
+        // resume from. Snapshots of every other prefix would cost a copy of each changed policy per mutation.
+        PrefixCache.Entry beforeLast = null;
+        boolean cacheable = prefixKeys != null;
+
+        for (int i = start; i < mutations.size(); i++) {
             CalculationMutation mutation = mutations.get(i);
             int msgIndexBefore = validationContext.getMessageCount();
 
@@ -30,30 +74,57 @@ public class MutationExecutor {
                 throw new IllegalArgumentException("Unknown mutation: " + mutation.getMutationDefinitionName());
             }
 
+            if (cacheable && i > start && i == mutations.size() - 1) {
+                beforeLast = prefix(situation.snapshot(), validationContext, processedMutations);
+            }
+
+            ChangeLog changes = recordChanges ? new ChangeLog() : ChangeLog.DISABLED;
             MutationContext context = new MutationContext(
-                currentSituation,
+                situation,
                 mutation,
                 validationContext,
-                i
+                i,
+                changes,
+                schemes
             );
 
+            long startedAt = System.nanoTime();
             MutationResult result = processor.process(context);
+            metrics.recordMutation(mutation.getMutationDefinitionName(), System.nanoTime() - startedAt);
 
-            int msgIndexAfter = validationContext.getMessageCount();
-            List<Integer> messageIndexes = IntStream.range(msgIndexBefore, msgIndexAfter)
-                .boxed()
-                .toList();
-
-            processedMutations.add(new ExecutionResult.MutationWithMessages(mutation, messageIndexes));
+            processedMutations.add(new ExecutionResult.MutationWithMessages(
+                mutation,
+                msgIndexBefore,
+                validationContext.getMessageCount(),
+                recordChanges ? changes : null
+            ));
 
             if (result.shouldHalt()) {
-                // CRITICAL error - halt processing, return state BEFORE failed mutation
-                return new ExecutionResult(currentSituation, processedMutations, true, initialSituation);
+                // CRITICAL error - halt processing, the working situation still holds the state BEFORE the failed mutation
+                storePrefix(prefixKeys, beforeLast);
+                return new ExecutionResult(situation.snapshot(), processedMutations, true, initialSituation);
             }
 
-            currentSituation = result.newSituation();
+            // Externally looked-up scheme data may change, so nothing from here on is reusable
+            cacheable &= !processor.usesSchemeRegistry();
+        }
+
+        Situation endSituation = situation.snapshot();
+        storePrefix(prefixKeys, beforeLast);
+        if (cacheable && start < mutations.size()) {
+            storePrefix(prefixKeys, prefix(endSituation, validationContext, processedMutations));
         }
+        return new ExecutionResult(endSituation, processedMutations, false, initialSituation);
+    }
 
-        return new ExecutionResult(currentSituation, processedMutations, false, initialSituation);
+    private static PrefixCache.Entry prefix(Situation situation, ValidationContext validationContext,
+                                            List<ExecutionResult.MutationWithMessages> processedMutations) {
+        return new PrefixCache.Entry(situation, validationContext.getMessages(), List.copyOf(processedMutations));
+    }
+
+    private void storePrefix(PrefixCache.Key[] prefixKeys, PrefixCache.Entry entry) {
+        if (entry != null) {
+            prefixCache.put(prefixKeys[entry.length() - 1], entry);
+        }
     }
 }
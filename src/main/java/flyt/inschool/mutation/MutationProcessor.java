@@ -1,6 +1,19 @@
 package flyt.inschool.mutation;
 
+/**
+ * Applies one mutation to the request's {@link WorkingSituation} in place. CRITICAL validation must happen before
+ * the situation is touched, so that a halted mutation leaves the pre-failure state behind. Every change to the
+ * situation is recorded in the context's {@link ChangeLog}, from which the response's JSON patches are built.
+ */
 @FunctionalInterface
 public interface MutationProcessor {
     MutationResult process(MutationContext context);
+
+    /**
+     * Whether processing may wait on the scheme registry, in which case the schemes of the request are prefetched
+     * and the request is kept off the event loop until they are resolved.
+     */
+    default boolean usesSchemeRegistry() {
+        return false;
+    }
 }
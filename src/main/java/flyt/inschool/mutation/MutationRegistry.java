@@ -1,5 +1,6 @@
 package flyt.inschool.mutation;
 
+import flyt.inschool.api.json.MutationPropertiesReader;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 
@@ -9,6 +10,7 @@ import java.util.concurrent.ConcurrentHashMap;
 @ApplicationScoped
 public class MutationRegistry {
     private final Map<String, MutationProcessor> processors = new ConcurrentHashMap<>();
+    private final Map<String, MutationPropertiesReader> propertiesReaders = new ConcurrentHashMap<>();
 
     public MutationRegistry() {
     }
@@ -18,19 +20,28 @@ public class MutationRegistry {
         flyt.inschool.mutation.impl.CreateDossierProcessor createDossier,
         flyt.inschool.mutation.impl.AddPolicyProcessor addPolicy,
         flyt.inschool.mutation.impl.ApplyIndexationProcessor applyIndexation,
-        flyt.inschool.mutation.impl.CalculateRetirementBenefitProcessor calculateRetirement
+        flyt.inschool.mutation.impl.CalculateRetirementBenefitProcessor calculateRetirement,
+        flyt.inschool.mutation.impl.ProjectFutureBenefitsProcessor projectFutureBenefits
     ) {
-        register("create_dossier", createDossier);
-        register("add_policy", addPolicy);
-        register("apply_indexation", applyIndexation);
-        register("calculate_retirement_benefit", calculateRetirement);
+        register("create_dossier", createDossier, flyt.inschool.mutation.impl.CreateDossierProcessor.Properties::read);
+        register("add_policy", addPolicy, flyt.inschool.mutation.impl.AddPolicyProcessor.Properties::read);
+        register("apply_indexation", applyIndexation, flyt.inschool.mutation.impl.ApplyIndexationProcessor.Properties::read);
+        register("calculate_retirement_benefit", calculateRetirement,
+            flyt.inschool.mutation.impl.CalculateRetirementBenefitProcessor.Properties::read);
+        register("project_future_benefits", projectFutureBenefits,
+            flyt.inschool.mutation.impl.ProjectFutureBenefitsProcessor.Properties::read);
     }
 
-    public void register(String name, MutationProcessor processor) {
+    public void register(String name, MutationProcessor processor, MutationPropertiesReader propertiesReader) {
         processors.put(name, processor);
+        propertiesReaders.put(name, propertiesReader);
     }
 
     public MutationProcessor get(String name) {
         return processors.get(name);
     }
+
+    public MutationPropertiesReader getPropertiesReader(String name) {
+        return propertiesReaders.get(name);
+    }
 }
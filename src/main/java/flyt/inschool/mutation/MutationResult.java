@@ -1,9 +1,8 @@
 package flyt.inschool.mutation;
 
-import flyt.inschool.domain.Situation;
-
 public record MutationResult(
-    Situation newSituation,
     boolean shouldHalt
 ) {
+    public static final MutationResult APPLIED = new MutationResult(false);
+    public static final MutationResult HALTED = new MutationResult(true);
 }
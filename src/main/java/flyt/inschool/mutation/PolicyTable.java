@@ -0,0 +1,207 @@
+package flyt.inschool.mutation;
+
+import flyt.inschool.domain.Policy;
+import flyt.inschool.domain.PolicyKeyIndex;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Columnar policy storage of a {@link WorkingSituation}. Hot loops read and write the primitive columns directly
+ * and report the rows they touched via {@link #markChanged(int)}; {@link Policy} records are only materialized for
+ * snapshots. An unset attainable pension is stored as {@code NaN}.
+ * <p>
+ * Scheme ids are numbered per table in order of their first row, so a table rebuilt from a snapshot numbers them
+ * as the table that built the snapshot's key index did, and ids that only ever appear in filters are not retained.
+ */
+public class PolicyTable {
+
+    /**
+     * Ordinal of a scheme id no policy in the table has; it matches no row.
+     */
+    public static final int UNKNOWN_SCHEME = -1;
+
+    private static final int INITIAL_CAPACITY = 8;
+
+    private int size;
+    private String[] policyIds = new String[INITIAL_CAPACITY];
+    private String[] schemeIds = new String[INITIAL_CAPACITY];
+    private int[] schemeOrdinals = new int[INITIAL_CAPACITY];
+    private int[] employmentStartDays = new int[INITIAL_CAPACITY];
+    private double[] salaries = new double[INITIAL_CAPACITY];
+    private double[] partTimeFactors = new double[INITIAL_CAPACITY];
+    private double[] attainablePensions = new double[INITIAL_CAPACITY];
+    private Object[] projections = new Object[INITIAL_CAPACITY];
+
+    private final Map<String, Integer> schemeOrdinalsById = new HashMap<>();
+    private PolicyKeyIndex keyIndex = PolicyKeyIndex.empty();
+    private long[] changedRows = new long[1];
+
+    /**
+     * Table holding the policies of a snapshot, e.g. to resume a calculation from a cached situation. The key
+     * index is forked, as the snapshot's index may be shared with other requests.
+     */
+    static PolicyTable of(List<Policy> snapshotPolicies, PolicyKeyIndex snapshotKeyIndex) {
+        PolicyTable table = new PolicyTable();
+        for (Policy policy : snapshotPolicies) {
+            if (table.size == table.salaries.length) {
+                table.grow();
+            }
+            int row = table.size++;
+            table.policyIds[row] = policy.policyId();
+            table.schemeIds[row] = policy.schemeId();
+            table.schemeOrdinals[row] = table.internScheme(policy.schemeId());
+            table.employmentStartDays[row] = (int) policy.employmentStartDate().toEpochDay();
+            table.salaries[row] = policy.salary();
+            table.partTimeFactors[row] = policy.partTimeFactor();
+            table.attainablePensions[row] = policy.attainablePension() != null ? policy.attainablePension() : Double.NaN;
+            table.projections[row] = policy.projections();
+        }
+        table.keyIndex = snapshotKeyIndex.fork(table.size);
+        return table;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public String[] policyIds() {
+        return policyIds;
+    }
+
+    public String[] schemeIds() {
+        return schemeIds;
+    }
+
+    public int[] schemeOrdinals() {
+        return schemeOrdinals;
+    }
+
+    public int[] employmentStartDays() {
+        return employmentStartDays;
+    }
+
+    public double[] salaries() {
+        return salaries;
+    }
+
+    public double[] partTimeFactors() {
+        return partTimeFactors;
+    }
+
+    public double[] attainablePensions() {
+        return attainablePensions;
+    }
+
+    @SuppressWarnings("unchecked")
+    public List<Policy.Projection> projections(int row) {
+        return (List<Policy.Projection>) projections[row];
+    }
+
+    public void setProjections(int row, List<Policy.Projection> rowProjections) {
+        projections[row] = rowProjections;
+    }
+
+    /**
+     * The ordinal rows of {@code schemeId} have in {@link #schemeOrdinals()}, or {@link #UNKNOWN_SCHEME}.
+     */
+    public int schemeOrdinal(String schemeId) {
+        Integer ordinal = schemeOrdinalsById.get(schemeId);
+        return ordinal != null ? ordinal : UNKNOWN_SCHEME;
+    }
+
+    public boolean contains(String schemeId, int employmentStartDay) {
+        int schemeOrdinal = schemeOrdinal(schemeId);
+        return schemeOrdinal != UNKNOWN_SCHEME
+            && keyIndex.contains(PolicyKeyIndex.key(schemeOrdinal, employmentStartDay), size);
+    }
+
+    public void add(String policyId, String schemeId, int employmentStartDay, double salary, double partTimeFactor) {
+        if (size == salaries.length) {
+            grow();
+        }
+        int schemeOrdinal = internScheme(schemeId);
+        keyIndex = keyIndex.append(PolicyKeyIndex.key(schemeOrdinal, employmentStartDay), size);
+
+        policyIds[size] = policyId;
+        schemeIds[size] = schemeId;
+        schemeOrdinals[size] = schemeOrdinal;
+        employmentStartDays[size] = employmentStartDay;
+        salaries[size] = salary;
+        partTimeFactors[size] = partTimeFactor;
+        attainablePensions[size] = Double.NaN;
+        projections[size] = null;
+        size++;
+    }
+
+    public void markChanged(int row) {
+        changedRows[row >>> 6] |= 1L << row;
+    }
+
+    /**
+     * Merges a row bitmap (bit {@code i % 64} of word {@code i / 64} stands for row {@code i}), as produced by
+     * bulk kernels that track the rows they touched.
+     */
+    public void markChanged(long[] rows) {
+        for (int word = 0; word < rows.length; word++) {
+            changedRows[word] |= rows[word];
+        }
+    }
+
+    public void markAllChanged() {
+        for (int row = 0; row < size; row++) {
+            markChanged(row);
+        }
+    }
+
+    /**
+     * Scratch bitmap sized for the current rows, to be filled by a bulk update and passed to
+     * {@link #markChanged(long[])}.
+     */
+    public long[] newRowBitmap() {
+        return new long[changedRows.length];
+    }
+
+    long[] changedRows() {
+        return changedRows;
+    }
+
+    PolicyKeyIndex keyIndex() {
+        return keyIndex;
+    }
+
+    @SuppressWarnings("unchecked")
+    public Policy materialize(int row) {
+        double pension = attainablePensions[row];
+        return new Policy(
+            policyIds[row],
+            schemeIds[row],
+            LocalDate.ofEpochDay(employmentStartDays[row]),
+            salaries[row],
+            partTimeFactors[row],
+            Double.isNaN(pension) ? null : pension,
+            (List<Policy.Projection>) projections[row]
+        );
+    }
+
+    private int internScheme(String schemeId) {
+        Integer ordinal = schemeOrdinalsById.putIfAbsent(schemeId, schemeOrdinalsById.size());
+        return ordinal != null ? ordinal : schemeOrdinalsById.size() - 1;
+    }
+
+    private void grow() {
+        int capacity = salaries.length * 2;
+        changedRows = Arrays.copyOf(changedRows, (capacity + 63) >>> 6);
+        policyIds = Arrays.copyOf(policyIds, capacity);
+        schemeIds = Arrays.copyOf(schemeIds, capacity);
+        schemeOrdinals = Arrays.copyOf(schemeOrdinals, capacity);
+        employmentStartDays = Arrays.copyOf(employmentStartDays, capacity);
+        salaries = Arrays.copyOf(salaries, capacity);
+        partTimeFactors = Arrays.copyOf(partTimeFactors, capacity);
+        attainablePensions = Arrays.copyOf(attainablePensions, capacity);
+        projections = Arrays.copyOf(projections, capacity);
+    }
+}
@@ -0,0 +1,191 @@
+package flyt.inschool.mutation;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import flyt.inschool.api.dto.CalculationMutation;
+import flyt.inschool.api.json.CanonicalMutations;
+import flyt.inschool.domain.Dossier;
+import flyt.inschool.domain.Situation;
+import flyt.inschool.util.Hash128;
+import flyt.inschool.validation.MessageLog;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Situations earlier requests reached before their last mutation and after all of them, so a request sharing such
+ * a prefix resumes from there. Each prefix is keyed by a hash chained over its mutations (the hash of the prefix
+ * one shorter followed by the canonical mutation), which makes the keys of a request the path through a trie of
+ * prefixes. Keys also hold the hashed bytes and the key of the prefix one shorter, so a hit counts only when the
+ * whole chain is equal and a hash collision cannot resume another request's situation. Only what a mutation does
+ * to the situation is hashed, so a client resending its history under fresh mutation ids resumes too. Bounded by
+ * the estimated bytes held, as each entry holds a whole dossier, and expired like {@code ResultCache}.
+ */
+@ApplicationScoped
+public class PrefixCache {
+
+    // Estimates per entry, per policy (row, vector slot and key index entry), message and processed mutation
+    private static final int ENTRY_OVERHEAD_BYTES = 160;
+    private static final int POLICY_BYTES = 256;
+    private static final int MESSAGE_BYTES = 16;
+    private static final int MUTATION_BYTES = 96;
+
+    @ConfigProperty(name = "calculation.prefix-cache.enabled", defaultValue = "false")
+    boolean enabled;
+
+    @ConfigProperty(name = "calculation.prefix-cache.max-bytes", defaultValue = "134217728")
+    long maxBytes;
+
+    @ConfigProperty(name = "calculation.prefix-cache.ttl", defaultValue = "10m")
+    Duration ttl;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    private Cache<Key, Entry> cache;
+
+    /**
+     * A prefix: the hashed bytes of its last mutation, chained to the key of the prefix one shorter.
+     */
+    public static final class Key {
+        private final Key shorter;
+        private final byte[] bytes;
+        private final Hash128 hash;
+
+        Key(Key shorter, byte[] bytes) {
+            this.shorter = shorter;
+            this.bytes = bytes;
+            this.hash = Hash128.of(bytes, 0, bytes.length);
+        }
+
+        /**
+         * Walks both chains, stopping early where they share a key.
+         */
+        @Override
+        public boolean equals(Object other) {
+            Key a = this;
+            Key b = other instanceof Key key ? key : null;
+            while (a != b) {
+                if (a == null || b == null || !a.hash.equals(b.hash) || !Arrays.equals(a.bytes, b.bytes)) {
+                    return false;
+                }
+                a = a.shorter;
+                b = b.shorter;
+            }
+            return true;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash.hashCode();
+        }
+    }
+
+    /**
+     * State after the first {@code processedMutations.size()} mutations; all parts are shared read-only between
+     * the requests resuming from it.
+     */
+    public record Entry(
+        Situation situation,
+        MessageLog messages,
+        List<ExecutionResult.MutationWithMessages> processedMutations
+    ) {
+        public int length() {
+            return processedMutations.size();
+        }
+
+        /**
+         * As if nothing were shared with the entries of shorter prefixes, which errs on the safe side.
+         */
+        int weight() {
+            Dossier dossier = situation.dossier();
+            long bytes = ENTRY_OVERHEAD_BYTES
+                + (long) (dossier != null ? dossier.getPolicyCount() : 0) * POLICY_BYTES
+                + (long) messages.size() * MESSAGE_BYTES
+                + (long) processedMutations.size() * MUTATION_BYTES;
+            return (int) Math.min(bytes, Integer.MAX_VALUE);
+        }
+    }
+
+    @PostConstruct
+    void init() {
+        if (!enabled) {
+            return;
+        }
+        cache = Caffeine.newBuilder()
+            .maximumWeight(maxBytes)
+            .weigher((Key key, Entry entry) -> key.bytes.length + entry.weight())
+            .expireAfterWrite(ttl)
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "calculation-prefixes");
+    }
+
+    public boolean enabled() {
+        return cache != null;
+    }
+
+    /**
+     * Keys of every prefix of {@code mutations}: element {@code k} stands for the first {@code k + 1} mutations.
+     * Prefixes recorded with and without changes are kept apart.
+     */
+    public Key[] keys(List<CalculationMutation> mutations, boolean recordChanges) {
+        Key[] keys = new Key[mutations.size()];
+        Key previous = null;
+        Hash128 previousHash = new Hash128(0, recordChanges ? 1 : 0);
+        ByteArrayOutputStream canonical = new ByteArrayOutputStream(256);
+        try (JsonGenerator generator = objectMapper.createGenerator(canonical)) {
+            for (int i = 0; i < keys.length; i++) {
+                canonical.reset();
+                writeLong(canonical, previousHash.high());
+                writeLong(canonical, previousHash.low());
+                CanonicalMutations.writeEffect(generator, mutations.get(i));
+                generator.flush();
+                previous = new Key(previous, canonical.toByteArray());
+                previousHash = previous.hash;
+                keys[i] = previous;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return keys;
+    }
+
+    /**
+     * Entry of the longest cached prefix, or {@code null} when not even the first mutation is cached.
+     */
+    public Entry longest(Key[] keys) {
+        for (int i = keys.length - 1; i >= 0; i--) {
+            Entry entry = cache.getIfPresent(keys[i]);
+            if (entry != null) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    public void put(Key key, Entry entry) {
+        cache.put(key, entry);
+    }
+
+    private static void writeLong(ByteArrayOutputStream out, long value) {
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            out.write((int) (value >>> shift));
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package flyt.inschool.mutation;
+
+import flyt.inschool.domain.Dossier;
+import flyt.inschool.domain.DossierStatus;
+import flyt.inschool.domain.Person;
+import flyt.inschool.domain.Policy;
+import flyt.inschool.domain.Situation;
+import flyt.inschool.util.EpochDays;
+import flyt.inschool.util.PersistentVector;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Request-local mutable state the processors update in place. Immutable {@link Situation} snapshots are only
+ * materialized on demand; only policies changed since the previous snapshot are turned back into records, and
+ * consecutive snapshots share the untouched part of the policy vector.
+ */
+public class WorkingSituation {
+
+    static final Situation EMPTY = new Situation(null);
+
+    private String dossierId;
+    private DossierStatus status;
+    private int retirementDay = EpochDays.NONE;
+    private List<Person> persons;
+    private int participantBirthDay;
+    private final PolicyTable policies;
+
+    private PersistentVector<Policy> snapshotPolicies = PersistentVector.empty();
+    private Situation snapshot = EMPTY;
+    private boolean changedSinceSnapshot;
+
+    public WorkingSituation() {
+        this.policies = new PolicyTable();
+    }
+
+    private WorkingSituation(Situation snapshot) {
+        Dossier dossier = snapshot.dossier();
+        if (dossier == null) {
+            this.policies = new PolicyTable();
+        } else {
+            this.dossierId = dossier.dossierId();
+            this.status = dossier.status();
+            this.retirementDay = dossier.retirementDate() != null
+                ? (int) dossier.retirementDate().toEpochDay()
+                : EpochDays.NONE;
+            this.persons = dossier.persons();
+            this.participantBirthDay = (int) participant().birthDate().toEpochDay();
+            this.policies = PolicyTable.of(dossier.policies(), dossier.policyKeyIndex());
+            this.snapshotPolicies = (PersistentVector<Policy>) dossier.policies();
+        }
+        this.snapshot = snapshot;
+    }
+
+    /**
+     * Working copy of an earlier snapshot; the snapshot itself and the policy vector stay shared.
+     */
+    public static WorkingSituation from(Situation snapshot) {
+        return new WorkingSituation(snapshot);
+    }
+
+    public boolean hasDossier() {
+        return dossierId != null;
+    }
+
+    public void createDossier(String dossierId, Person participant) {
+        this.dossierId = dossierId;
+        this.status = DossierStatus.ACTIVE;
+        this.retirementDay = EpochDays.NONE;
+        this.persons = List.of(participant);
+        this.participantBirthDay = (int) participant.birthDate().toEpochDay();
+        changedSinceSnapshot = true;
+    }
+
+    public String dossierId() {
+        return dossierId;
+    }
+
+    public DossierStatus status() {
+        return status;
+    }
+
+    /**
+     * Retirement date as an epoch day, {@link EpochDays#NONE} before retirement.
+     */
+    public int retirementDay() {
+        return retirementDay;
+    }
+
+    public Person participant() {
+        return persons.get(0);
+    }
+
+    public int participantBirthDay() {
+        return participantBirthDay;
+    }
+
+    public void retire(int retirementDay) {
+        this.status = DossierStatus.RETIRED;
+        this.retirementDay = retirementDay;
+        changedSinceSnapshot = true;
+    }
+
+    /**
+     * Policy columns for in-place updates; callers report touched rows through {@link PolicyTable#markChanged(int)}.
+     */
+    public PolicyTable policies() {
+        changedSinceSnapshot = true;
+        return policies;
+    }
+
+    public int policyCount() {
+        return policies.size();
+    }
+
+    public Situation snapshot() {
+        if (!changedSinceSnapshot) {
+            return snapshot;
+        }
+
+        PersistentVector<Policy> vector = snapshotPolicies;
+        int snapshotSize = vector.size();
+        long[] changedRows = policies.changedRows();
+        PersistentVector.Updater<Policy> updater = vector.updater();
+        for (int word = 0; word < changedRows.length; word++) {
+            for (long bits = changedRows[word]; bits != 0; bits &= bits - 1) {
+                int row = (word << 6) + Long.numberOfTrailingZeros(bits);
+                if (row < snapshotSize) {
+                    updater.set(row, policies.materialize(row));
+                }
+            }
+            changedRows[word] = 0;
+        }
+        vector = updater.build();
+        for (int i = snapshotSize; i < policies.size(); i++) {
+            vector = vector.append(policies.materialize(i));
+        }
+
+        snapshotPolicies = vector;
+        LocalDate retirementDate = retirementDay != EpochDays.NONE ? LocalDate.ofEpochDay(retirementDay) : null;
+        snapshot = new Situation(new Dossier(dossierId, status, retirementDate, persons, vector, policies.keyIndex()));
+        changedSinceSnapshot = false;
+        return snapshot;
+    }
+}
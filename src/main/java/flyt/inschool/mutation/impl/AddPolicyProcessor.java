@@ -1,20 +1,24 @@
 package flyt.inschool.mutation.impl;
 
-import flyt.inschool.domain.Dossier;
-import flyt.inschool.domain.Policy;
-import flyt.inschool.domain.Situation;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import flyt.inschool.api.dto.MutationProperties;
+import flyt.inschool.api.json.JsonFields;
+import flyt.inschool.mutation.ChangeLog;
 import flyt.inschool.mutation.MutationContext;
 import flyt.inschool.mutation.MutationProcessor;
 import flyt.inschool.mutation.MutationResult;
+import flyt.inschool.mutation.PolicyTable;
+import flyt.inschool.mutation.WorkingSituation;
+import flyt.inschool.registry.SchemeReference;
+import flyt.inschool.util.EpochDays;
 import flyt.inschool.util.PolicyIdGenerator;
 import flyt.inschool.validation.MessageCode;
 import flyt.inschool.validation.PolicyValidator;
 import jakarta.enterprise.context.ApplicationScoped;
 
-import java.time.LocalDate;
-import java.util.HashSet;
-import java.util.Map;
-import java.util.Set;
+import java.io.IOException;
 
 @ApplicationScoped
 public class AddPolicyProcessor implements MutationProcessor {
@@ -22,63 +26,89 @@ public class AddPolicyProcessor implements MutationProcessor {
     @Override
     public MutationResult process(MutationContext context) {
         // Validate: dossier exists
-        Dossier dossier = context.currentSituation().dossier();
-        if (dossier == null) {
+        WorkingSituation situation = context.situation();
+        if (!situation.hasDossier()) {
             context.validationContext().addCritical(MessageCode.DOSSIER_NOT_FOUND);
-            return new MutationResult(context.currentSituation(), true);
+            return MutationResult.HALTED;
         }
 
-        Map<String, Object> props = context.mutation().getMutationProperties();
+        Properties props = (Properties) context.mutation().getMutationProperties();
 
         // Extract properties
-        String schemeId = (String) props.get("scheme_id");
-        LocalDate employmentStartDate = LocalDate.parse((String) props.get("employment_start_date"));
-        double salary = ((Number) props.get("salary")).doubleValue();
-        double partTimeFactor = ((Number) props.get("part_time_factor")).doubleValue();
+        String schemeId = props.schemeId();
+        int employmentStartDay = props.employmentStartDay();
+        double salary = props.salary();
+        double partTimeFactor = props.partTimeFactor();
 
         // Validate: salary >= 0
         if (!PolicyValidator.isValidSalary(salary)) {
             context.validationContext().addCritical(MessageCode.INVALID_SALARY);
-            return new MutationResult(context.currentSituation(), true);
+            return MutationResult.HALTED;
         }
 
         // Validate: part_time_factor between 0 and 1
         if (!PolicyValidator.isValidPartTimeFactor(partTimeFactor)) {
             context.validationContext().addCritical(MessageCode.INVALID_PART_TIME_FACTOR);
-            return new MutationResult(context.currentSituation(), true);
+            return MutationResult.HALTED;
         }
 
         // Check for duplicates (scheme_id + employment_start_date)
-        Set<String> existingPolicies = new HashSet<>();
-        for (Policy policy : dossier.policies()) {
-            String key = policy.schemeId() + "|" + policy.employmentStartDate();
-            existingPolicies.add(key);
-        }
-
-        String newPolicyKey = schemeId + "|" + employmentStartDate;
-        if (existingPolicies.contains(newPolicyKey)) {
+        PolicyTable policies = situation.policies();
+        if (policies.contains(schemeId, employmentStartDay)) {
             context.validationContext().addWarning(MessageCode.DUPLICATE_POLICY);
             // WARNING - continue processing
         }
 
         // Generate policy_id
-        String policyId = PolicyIdGenerator.generate(dossier.dossierId(), dossier.getPolicyCount());
-
-        // Create policy
-        Policy newPolicy = new Policy(
-            policyId,
-            schemeId,
-            employmentStartDate,
-            salary,
-            partTimeFactor,
-            null,  // attainable_pension is null initially
-            null   // projections is null initially
-        );
-
-        // Add policy to dossier
-        Dossier updatedDossier = dossier.addPolicy(newPolicy);
-        Situation newSituation = context.currentSituation().withDossier(updatedDossier);
-
-        return new MutationResult(newSituation, false);
+        String policyId = PolicyIdGenerator.generate(situation.dossierId(), policies.size());
+
+        // Add policy (attainable_pension and projections are null initially)
+        int row = policies.size();
+        policies.add(policyId, schemeId, employmentStartDay, salary, partTimeFactor);
+        ChangeLog changes = context.changes();
+        if (changes.enabled()) {
+            changes.addPolicy(row, policies.materialize(row));
+            changes.replacePolicyCount(row, row + 1);
+        }
+
+        return MutationResult.APPLIED;
+    }
+
+    public record Properties(String schemeId, int employmentStartDay, double salary, double partTimeFactor)
+        implements MutationProperties, SchemeReference {
+
+        public static Properties read(JsonParser parser) throws IOException {
+            String schemeId = null;
+            int employmentStartDay = EpochDays.NONE;
+            double salary = Double.NaN;
+            double partTimeFactor = Double.NaN;
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                switch (field) {
+                    case "scheme_id" -> schemeId = parser.getValueAsString();
+                    case "employment_start_date" -> employmentStartDay = JsonFields.readEpochDay(parser);
+                    case "salary" -> salary = JsonFields.readDouble(parser);
+                    case "part_time_factor" -> partTimeFactor = JsonFields.readDouble(parser);
+                    default -> parser.skipChildren();
+                }
+            }
+
+            JsonFields.requireField(parser, employmentStartDay != EpochDays.NONE, "employment_start_date");
+            JsonFields.requireField(parser, !Double.isNaN(salary), "salary");
+            JsonFields.requireField(parser, !Double.isNaN(partTimeFactor), "part_time_factor");
+            return new Properties(schemeId, employmentStartDay, salary, partTimeFactor);
+        }
+
+        @Override
+        public void writeFields(JsonGenerator generator) throws IOException {
+            if (schemeId != null) {
+                generator.writeStringField("scheme_id", schemeId);
+            }
+            JsonFields.writeEpochDayField(generator, "employment_start_date", employmentStartDay);
+            JsonFields.writeNumberField(generator, "salary", salary);
+            JsonFields.writeNumberField(generator, "part_time_factor", partTimeFactor);
+        }
     }
 }
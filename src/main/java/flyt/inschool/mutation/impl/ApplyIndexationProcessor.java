@@ -1,94 +1,133 @@
 package flyt.inschool.mutation.impl;
 
-import flyt.inschool.domain.Dossier;
-import flyt.inschool.domain.Policy;
-import flyt.inschool.domain.Situation;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import flyt.inschool.api.dto.MutationProperties;
+import flyt.inschool.api.json.JsonFields;
+import flyt.inschool.mutation.ChangeLog;
 import flyt.inschool.mutation.MutationContext;
 import flyt.inschool.mutation.MutationProcessor;
 import flyt.inschool.mutation.MutationResult;
+import flyt.inschool.mutation.PolicyTable;
+import flyt.inschool.mutation.WorkingSituation;
+import flyt.inschool.mutation.kernel.PolicyKernel;
+import flyt.inschool.util.EpochDays;
 import flyt.inschool.validation.MessageCode;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
 
-import java.time.LocalDate;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Map;
+import java.io.IOException;
+import java.util.Arrays;
 
 @ApplicationScoped
 public class ApplyIndexationProcessor implements MutationProcessor {
 
+    @Inject
+    PolicyKernel kernel;
+
+    public ApplyIndexationProcessor() {
+    }
+
+    public ApplyIndexationProcessor(PolicyKernel kernel) {
+        this.kernel = kernel;
+    }
+
     @Override
     public MutationResult process(MutationContext context) {
         // Validate: dossier exists
-        Dossier dossier = context.currentSituation().dossier();
-        if (dossier == null) {
+        WorkingSituation situation = context.situation();
+        if (!situation.hasDossier()) {
             context.validationContext().addCritical(MessageCode.DOSSIER_NOT_FOUND);
-            return new MutationResult(context.currentSituation(), true);
+            return MutationResult.HALTED;
         }
 
         // Validate: has policies
-        if (dossier.policies().isEmpty()) {
+        if (situation.policyCount() == 0) {
             context.validationContext().addCritical(MessageCode.NO_POLICIES);
-            return new MutationResult(context.currentSituation(), true);
+            return MutationResult.HALTED;
         }
 
-        Map<String, Object> props = context.mutation().getMutationProperties();
+        Properties props = (Properties) context.mutation().getMutationProperties();
 
         // Extract properties
-        double percentage = ((Number) props.get("percentage")).doubleValue();
-        String schemeIdFilter = (String) props.get("scheme_id");
-        LocalDate effectiveBeforeFilter = props.get("effective_before") != null
-            ? LocalDate.parse((String) props.get("effective_before"))
-            : null;
-
-        // Filter policies
-        List<Policy> updatedPolicies = new ArrayList<>();
-        int matchCount = 0;
-        boolean hadNegativeSalary = false;
-
-        for (Policy policy : dossier.policies()) {
-            boolean matches = true;
-
-            // Apply scheme_id filter
-            if (schemeIdFilter != null && !policy.schemeId().equals(schemeIdFilter)) {
-                matches = false;
-            }
-
-            // Apply effective_before filter
-            if (effectiveBeforeFilter != null && !policy.employmentStartDate().isBefore(effectiveBeforeFilter)) {
-                matches = false;
-            }
-
-            if (matches) {
-                matchCount++;
-                double newSalary = policy.salary() * (1 + percentage);
-
-                // Clamp negative salaries to 0
-                if (newSalary < 0) {
-                    newSalary = 0;
-                    hadNegativeSalary = true;
+        double percentage = props.percentage();
+        String schemeIdFilter = props.schemeId();
+
+        // Filter and update salary columns in place
+        PolicyTable policies = situation.policies();
+        boolean filterByScheme = schemeIdFilter != null;
+        int effectiveBeforeDay = props.effectiveBeforeDay() != EpochDays.NONE
+            ? props.effectiveBeforeDay()
+            : Integer.MAX_VALUE;
+        long[] matchedRows = policies.newRowBitmap();
+        ChangeLog changes = context.changes();
+        double[] salariesBefore = changes.enabled() ? Arrays.copyOf(policies.salaries(), policies.size()) : null;
+
+        PolicyKernel.IndexationResult indexation = kernel.applyIndexation(
+            policies.salaries(),
+            policies.schemeOrdinals(),
+            policies.employmentStartDays(),
+            policies.size(),
+            filterByScheme,
+            filterByScheme ? policies.schemeOrdinal(schemeIdFilter) : PolicyTable.UNKNOWN_SCHEME,
+            effectiveBeforeDay,
+            1 + percentage,
+            matchedRows
+        );
+        policies.markChanged(matchedRows);
+        if (changes.enabled()) {
+            double[] salaries = policies.salaries();
+            for (int word = 0; word < matchedRows.length; word++) {
+                for (long bits = matchedRows[word]; bits != 0; bits &= bits - 1) {
+                    int row = (word << 6) + Long.numberOfTrailingZeros(bits);
+                    changes.replaceSalary(row, salariesBefore[row], salaries[row]);
                 }
-
-                updatedPolicies.add(policy.withSalary(newSalary));
-            } else {
-                updatedPolicies.add(policy);
             }
         }
 
         // Warning if no matching policies
-        if (matchCount == 0) {
+        if (indexation.matchCount() == 0) {
             context.validationContext().addWarning(MessageCode.NO_MATCHING_POLICIES);
         }
 
         // Warning if any salary was clamped to 0
-        if (hadNegativeSalary) {
+        if (indexation.hadNegativeSalary()) {
             context.validationContext().addWarning(MessageCode.NEGATIVE_SALARY_CLAMPED);
         }
 
-        // Update dossier with modified policies
-        Dossier updatedDossier = dossier.updatePolicies(updatedPolicies);
-        Situation newSituation = context.currentSituation().withDossier(updatedDossier);
+        return MutationResult.APPLIED;
+    }
+
+    public record Properties(double percentage, String schemeId, int effectiveBeforeDay) implements MutationProperties {
+
+        public static Properties read(JsonParser parser) throws IOException {
+            double percentage = Double.NaN;
+            String schemeId = null;
+            int effectiveBeforeDay = EpochDays.NONE;
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                switch (field) {
+                    case "percentage" -> percentage = JsonFields.readDouble(parser);
+                    case "scheme_id" -> schemeId = parser.getValueAsString();
+                    case "effective_before" -> effectiveBeforeDay = JsonFields.readEpochDay(parser);
+                    default -> parser.skipChildren();
+                }
+            }
 
-        return new MutationResult(newSituation, false);
+            JsonFields.requireField(parser, !Double.isNaN(percentage), "percentage");
+            return new Properties(percentage, schemeId, effectiveBeforeDay);
+        }
+
+        @Override
+        public void writeFields(JsonGenerator generator) throws IOException {
+            JsonFields.writeNumberField(generator, "percentage", percentage);
+            if (schemeId != null) {
+                generator.writeStringField("scheme_id", schemeId);
+            }
+            JsonFields.writeEpochDayField(generator, "effective_before", effectiveBeforeDay);
+        }
     }
 }
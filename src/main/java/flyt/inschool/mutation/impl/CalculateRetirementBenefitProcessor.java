@@ -1,106 +1,225 @@
 package flyt.inschool.mutation.impl;
 
-import flyt.inschool.domain.Dossier;
-import flyt.inschool.domain.Person;
-import flyt.inschool.domain.Policy;
-import flyt.inschool.domain.Situation;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import flyt.inschool.api.dto.MutationProperties;
+import flyt.inschool.api.json.JsonFields;
+import flyt.inschool.domain.DossierStatus;
+import flyt.inschool.mutation.ChangeLog;
 import flyt.inschool.mutation.MutationContext;
 import flyt.inschool.mutation.MutationProcessor;
 import flyt.inschool.mutation.MutationResult;
+import flyt.inschool.mutation.PolicyTable;
+import flyt.inschool.mutation.WorkingSituation;
+import flyt.inschool.mutation.kernel.PolicyKernel;
+import flyt.inschool.registry.SchemeRegistryClient;
 import flyt.inschool.util.DateArithmetic;
+import flyt.inschool.util.EpochDays;
 import flyt.inschool.validation.EligibilityValidator;
 import flyt.inschool.validation.MessageCode;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 
-import java.time.LocalDate;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Map;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
 
 @ApplicationScoped
 public class CalculateRetirementBenefitProcessor implements MutationProcessor {
 
-    private static final double DEFAULT_ACCRUAL_RATE = 0.02;
+    // Dossiers with at least this many policies are calculated on the common fork/join pool
+    @ConfigProperty(name = "calculation.retirement.parallel-threshold", defaultValue = "8192")
+    int parallelThreshold;
+
+    @Inject
+    PolicyKernel kernel;
+
+    @Inject
+    SchemeRegistryClient schemeRegistry;
+
+    public CalculateRetirementBenefitProcessor() {
+    }
+
+    public CalculateRetirementBenefitProcessor(PolicyKernel kernel, SchemeRegistryClient schemeRegistry,
+                                               int parallelThreshold) {
+        this.kernel = kernel;
+        this.schemeRegistry = schemeRegistry;
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    @Override
+    public boolean usesSchemeRegistry() {
+        return schemeRegistry.enabled();
+    }
 
     @Override
     public MutationResult process(MutationContext context) {
         // Validate: dossier exists
-        Dossier dossier = context.currentSituation().dossier();
-        if (dossier == null) {
+        WorkingSituation situation = context.situation();
+        if (!situation.hasDossier()) {
             context.validationContext().addCritical(MessageCode.DOSSIER_NOT_FOUND);
-            return new MutationResult(context.currentSituation(), true);
+            return MutationResult.HALTED;
         }
 
         // Validate: has policies
-        if (dossier.policies().isEmpty()) {
+        if (situation.policyCount() == 0) {
             context.validationContext().addCritical(MessageCode.NO_POLICIES);
-            return new MutationResult(context.currentSituation(), true);
+            return MutationResult.HALTED;
         }
 
-        Map<String, Object> props = context.mutation().getMutationProperties();
-        LocalDate retirementDate = LocalDate.parse((String) props.get("retirement_date"));
+        Properties props = (Properties) context.mutation().getMutationProperties();
+        int retirementDay = props.retirementDay();
 
         // Get participant's birth date
-        Person participant = dossier.persons().get(0);
-        LocalDate birthDate = participant.birthDate();
-
-        // Step 1: Calculate years of service per policy
-        List<PolicyCalculation> calculations = new ArrayList<>();
+        int birthDay = situation.participantBirthDay();
+
+        PolicyTable policies = situation.policies();
+        int policyCount = policies.size();
+        String[] policyIds = policies.policyIds();
+        int[] employmentStartDays = policies.employmentStartDays();
+        double[] salaries = policies.salaries();
+        double[] partTimeFactors = policies.partTimeFactors();
+        double[] attainablePensions = policies.attainablePensions();
+
+        boolean parallel = policyCount >= parallelThreshold;
+        double[] years = new double[policyCount];
         double totalYears = 0.0;
+        double weightedSum = 0.0;
 
-        for (Policy policy : dossier.policies()) {
-            // Check for retirement before employment
-            if (retirementDate.isBefore(policy.employmentStartDate())) {
-                context.validationContext().addWarning(
-                    MessageCode.RETIREMENT_BEFORE_EMPLOYMENT,
-                    "Policy " + policy.policyId() + " has retirement date before employment start date"
-                );
+        if (parallel) {
+            // Steps 1-3 fused: per-policy terms in parallel, then summed in policy order, as sequentially
+            double[] weightedYears = new double[policyCount];
+            forEachRange(policyCount, (from, to) -> {
+                for (int i = from; i < to; i++) {
+                    years[i] = DateArithmetic.calculateYearsOfService(employmentStartDays[i], retirementDay);
+                    weightedYears[i] = salaries[i] * partTimeFactors[i] * years[i];
+                }
+            });
+            for (int i = 0; i < policyCount; i++) {
+                if (retirementDay < employmentStartDays[i]) {
+                    context.validationContext().addWarning(MessageCode.RETIREMENT_BEFORE_EMPLOYMENT, policyIds[i]);
+                }
+                totalYears += years[i];
+                weightedSum += weightedYears[i];
+            }
+        } else {
+            // Step 1: Calculate years of service per policy
+            for (int i = 0; i < policyCount; i++) {
+                // Check for retirement before employment
+                if (retirementDay < employmentStartDays[i]) {
+                    context.validationContext().addWarning(MessageCode.RETIREMENT_BEFORE_EMPLOYMENT, policyIds[i]);
+                }
+
+                years[i] = DateArithmetic.calculateYearsOfService(employmentStartDays[i], retirementDay);
+                totalYears += years[i];
             }
-
-            double years = DateArithmetic.calculateYearsOfService(policy.employmentStartDate(), retirementDate);
-            double effectiveSalary = policy.salary() * policy.partTimeFactor();
-
-            PolicyCalculation calc = new PolicyCalculation(policy, years, effectiveSalary);
-            calculations.add(calc);
-            totalYears += years;
         }
 
         // Validate: eligibility (age >= 65 OR total_years >= 40)
-        if (!EligibilityValidator.isEligibleForRetirement(birthDate, retirementDate, totalYears)) {
+        if (!EligibilityValidator.isEligibleForRetirement(birthDay, retirementDay, totalYears)) {
             context.validationContext().addCritical(MessageCode.NOT_ELIGIBLE);
-            return new MutationResult(context.currentSituation(), true);
+            return MutationResult.HALTED;
         }
 
-        // Step 2 & 3: Calculate weighted average salary
-        double weightedSum = 0.0;
-        for (PolicyCalculation calc : calculations) {
-            weightedSum += calc.effectiveSalary * calc.years;
+        // Step 2 & 3: Calculate weighted average salary from effective salaries (salary * part_time_factor)
+        if (!parallel) {
+            double[] effectiveSalaries = new double[policyCount];
+            kernel.effectiveSalaries(salaries, partTimeFactors, effectiveSalaries, policyCount);
+            for (int i = 0; i < policyCount; i++) {
+                weightedSum += effectiveSalaries[i] * years[i];
+            }
         }
         double weightedAvgSalary = totalYears > 0 ? weightedSum / totalYears : 0.0;
 
-        // Step 4: Calculate annual pension
-        double annualPension = weightedAvgSalary * totalYears * DEFAULT_ACCRUAL_RATE;
+        // Step 4 & 5: Calculate annual pension and distribute it per policy
+        ChangeLog changes = context.changes();
+        double[] pensionsBefore = changes.enabled() ? Arrays.copyOf(attainablePensions, policyCount) : null;
+        double[] accrualRates = schemeRegistry.accrualRates(context.schemeLookups(), policies.schemeIds(),
+            policyCount);
+        if (totalYears == 0) {
+            Arrays.fill(attainablePensions, 0, policyCount, 0.0);
+        } else if (parallel) {
+            double total = totalYears;
+            double scale = weightedAvgSalary * total;
+            forEachRange(policyCount, (from, to) -> {
+                for (int i = from; i < to; i++) {
+                    double annualPension = scale * accrualRates[i];
+                    attainablePensions[i] = annualPension * (years[i] / total);
+                }
+            });
+        } else if (isUniform(accrualRates)) {
+            double annualPension = weightedAvgSalary * totalYears * accrualRates[0];
+            kernel.distributePension(years, totalYears, annualPension, attainablePensions, policyCount);
+        } else {
+            // Schemes with their own registry rate: each policy's share comes from its scheme's annual pension
+            for (int i = 0; i < policyCount; i++) {
+                double annualPension = weightedAvgSalary * totalYears * accrualRates[i];
+                attainablePensions[i] = annualPension * (years[i] / totalYears);
+            }
+        }
+        policies.markAllChanged();
+        if (changes.enabled()) {
+            for (int i = 0; i < policyCount; i++) {
+                changes.setAttainablePension(i, pensionsBefore[i], attainablePensions[i]);
+            }
+            changes.replaceStatus(situation.status(), DossierStatus.RETIRED);
+            changes.setRetirementDate(situation.retirementDay(), retirementDay);
+        }
+
+        // Update dossier: status=RETIRED, set retirement_date
+        situation.retire(retirementDay);
 
-        // Step 5: Distribute pension per policy
-        List<Policy> updatedPolicies = new ArrayList<>();
-        for (PolicyCalculation calc : calculations) {
-            double policyPension = totalYears > 0
-                ? annualPension * (calc.years / totalYears)
-                : 0.0;
+        return MutationResult.APPLIED;
+    }
+
+    /**
+     * Splits {@code [0, count)} into a few ranges per common pool thread and runs them in parallel.
+     */
+    private static void forEachRange(int count, RangeTask task) {
+        int ranges = Math.min(count, ForkJoinPool.getCommonPoolParallelism() * 4);
+        IntStream.range(0, ranges).parallel()
+            .forEach(range -> task.run(count * range / ranges, count * (range + 1) / ranges));
+    }
+
+    @FunctionalInterface
+    private interface RangeTask {
+        void run(int from, int to);
+    }
 
-            Policy updatedPolicy = calc.policy.withAttainablePension(policyPension);
-            updatedPolicies.add(updatedPolicy);
+    private static boolean isUniform(double[] values) {
+        for (int i = 1; i < values.length; i++) {
+            if (values[i] != values[0]) {
+                return false;
+            }
         }
+        return true;
+    }
 
-        // Update dossier: status=RETIRED, set retirement_date, update policies
-        Dossier updatedDossier = dossier
-            .withRetirement(retirementDate)
-            .updatePolicies(updatedPolicies);
+    public record Properties(int retirementDay) implements MutationProperties {
 
-        Situation newSituation = context.currentSituation().withDossier(updatedDossier);
+        public static Properties read(JsonParser parser) throws IOException {
+            int retirementDay = EpochDays.NONE;
 
-        return new MutationResult(newSituation, false);
-    }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                if (field.equals("retirement_date")) {
+                    retirementDay = JsonFields.readEpochDay(parser);
+                } else {
+                    parser.skipChildren();
+                }
+            }
 
-    private record PolicyCalculation(Policy policy, double years, double effectiveSalary) {}
+            JsonFields.requireField(parser, retirementDay != EpochDays.NONE, "retirement_date");
+            return new Properties(retirementDay);
+        }
+
+        @Override
+        public void writeFields(JsonGenerator generator) throws IOException {
+            JsonFields.writeEpochDayField(generator, "retirement_date", retirementDay);
+        }
+    }
 }
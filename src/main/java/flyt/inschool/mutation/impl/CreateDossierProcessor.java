@@ -1,65 +1,100 @@
 package flyt.inschool.mutation.impl;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import flyt.inschool.api.dto.MutationProperties;
+import flyt.inschool.api.json.JsonFields;
 import flyt.inschool.domain.*;
 import flyt.inschool.mutation.MutationContext;
 import flyt.inschool.mutation.MutationProcessor;
 import flyt.inschool.mutation.MutationResult;
+import flyt.inschool.mutation.WorkingSituation;
+import flyt.inschool.util.EpochDays;
 import flyt.inschool.validation.DateValidator;
 import flyt.inschool.validation.MessageCode;
 import jakarta.enterprise.context.ApplicationScoped;
 
+import java.io.IOException;
 import java.time.LocalDate;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Map;
 
 @ApplicationScoped
 public class CreateDossierProcessor implements MutationProcessor {
 
     @Override
     public MutationResult process(MutationContext context) {
-        Map<String, Object> props = context.mutation().getMutationProperties();
+        Properties props = (Properties) context.mutation().getMutationProperties();
+        WorkingSituation situation = context.situation();
 
         // Validate: dossier already exists
-        if (context.currentSituation().dossier() != null) {
+        if (situation.hasDossier()) {
             context.validationContext().addCritical(MessageCode.DOSSIER_ALREADY_EXISTS);
-            return new MutationResult(context.currentSituation(), true);
+            return MutationResult.HALTED;
         }
 
         // Extract properties
-        String dossierId = (String) props.get("dossier_id");
-        String personId = (String) props.get("person_id");
-        String name = (String) props.get("name");
-        LocalDate birthDate = LocalDate.parse((String) props.get("birth_date"));
+        String name = props.name();
+        int birthDay = props.birthDay();
 
         // Validate: name not empty
         if (name == null || name.trim().isEmpty()) {
             context.validationContext().addCritical(MessageCode.INVALID_NAME);
-            return new MutationResult(context.currentSituation(), true);
+            return MutationResult.HALTED;
         }
 
         // Validate: birth date not in future
-        if (!DateValidator.isValidBirthDate(birthDate)) {
+        if (!DateValidator.isValidBirthDate(birthDay)) {
             context.validationContext().addCritical(MessageCode.INVALID_BIRTH_DATE);
-            return new MutationResult(context.currentSituation(), true);
+            return MutationResult.HALTED;
         }
 
-        // Create person
-        Person person = new Person(personId, PersonRole.PARTICIPANT, name, birthDate);
-        List<Person> persons = List.of(person);
+        // Create person and dossier (ACTIVE, no retirement date, empty policies)
+        Person person = new Person(props.personId(), PersonRole.PARTICIPANT, name, LocalDate.ofEpochDay(birthDay));
+        situation.createDossier(props.dossierId(), person);
+        if (context.changes().enabled()) {
+            context.changes().addDossier(situation.snapshot().dossier());
+        }
+
+        return MutationResult.APPLIED;
+    }
+
+    public record Properties(String dossierId, String personId, String name, int birthDay)
+        implements MutationProperties {
 
-        // Create dossier
-        Dossier dossier = new Dossier(
-            dossierId,
-            DossierStatus.ACTIVE,
-            null,  // retirement_date is null initially
-            persons,
-            new ArrayList<>()  // empty policies list
-        );
+        public static Properties read(JsonParser parser) throws IOException {
+            String dossierId = null;
+            String personId = null;
+            String name = null;
+            int birthDay = EpochDays.NONE;
 
-        // Create new situation
-        Situation newSituation = new Situation(dossier);
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                switch (field) {
+                    case "dossier_id" -> dossierId = parser.getValueAsString();
+                    case "person_id" -> personId = parser.getValueAsString();
+                    case "name" -> name = parser.getValueAsString();
+                    case "birth_date" -> birthDay = JsonFields.readEpochDay(parser);
+                    default -> parser.skipChildren();
+                }
+            }
 
-        return new MutationResult(newSituation, false);
+            JsonFields.requireField(parser, birthDay != EpochDays.NONE, "birth_date");
+            return new Properties(dossierId, personId, name, birthDay);
+        }
+
+        @Override
+        public void writeFields(JsonGenerator generator) throws IOException {
+            if (dossierId != null) {
+                generator.writeStringField("dossier_id", dossierId);
+            }
+            if (personId != null) {
+                generator.writeStringField("person_id", personId);
+            }
+            if (name != null) {
+                generator.writeStringField("name", name);
+            }
+            JsonFields.writeEpochDayField(generator, "birth_date", birthDay);
+        }
     }
 }
@@ -0,0 +1,232 @@
+package flyt.inschool.mutation.impl;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import flyt.inschool.api.dto.MutationProperties;
+import flyt.inschool.api.json.JsonFields;
+import flyt.inschool.domain.ProjectionSeries;
+import flyt.inschool.mutation.ChangeLog;
+import flyt.inschool.mutation.MutationContext;
+import flyt.inschool.mutation.MutationProcessor;
+import flyt.inschool.mutation.MutationResult;
+import flyt.inschool.mutation.PolicyTable;
+import flyt.inschool.mutation.WorkingSituation;
+import flyt.inschool.mutation.kernel.PolicyKernel;
+import flyt.inschool.registry.SchemeRegistryClient;
+import flyt.inschool.util.DateArithmetic;
+import flyt.inschool.util.EpochDays;
+import flyt.inschool.validation.MessageCode;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Projects the pension of every policy as if the participant retired on each projection date, with the formula of
+ * {@link CalculateRetirementBenefitProcessor} minus its eligibility check. Between consecutive dates only the days
+ * of service change, so they are advanced by the day delta while salaries and accrual rates are computed once.
+ * Every date's sums still run over the policies in order, which keeps each projection bit-identical to a
+ * retirement calculated on that date.
+ */
+@ApplicationScoped
+public class ProjectFutureBenefitsProcessor implements MutationProcessor {
+
+    // Policies times dates from which date ranges are projected in parallel
+    private static final long PARALLEL_THRESHOLD = 1 << 16;
+
+    // Most projected pensions (policies times dates) one mutation may produce
+    @ConfigProperty(name = "calculation.projection.max-points", defaultValue = "1000000")
+    long maxPoints;
+
+    @Inject
+    PolicyKernel kernel;
+
+    @Inject
+    SchemeRegistryClient schemeRegistry;
+
+    public ProjectFutureBenefitsProcessor() {
+    }
+
+    public ProjectFutureBenefitsProcessor(PolicyKernel kernel, SchemeRegistryClient schemeRegistry, long maxPoints) {
+        this.kernel = kernel;
+        this.schemeRegistry = schemeRegistry;
+        this.maxPoints = maxPoints;
+    }
+
+    @Override
+    public boolean usesSchemeRegistry() {
+        return schemeRegistry.enabled();
+    }
+
+    @Override
+    public MutationResult process(MutationContext context) {
+        // Validate: dossier exists
+        WorkingSituation situation = context.situation();
+        if (!situation.hasDossier()) {
+            context.validationContext().addCritical(MessageCode.DOSSIER_NOT_FOUND);
+            return MutationResult.HALTED;
+        }
+
+        // Validate: has policies
+        if (situation.policyCount() == 0) {
+            context.validationContext().addCritical(MessageCode.NO_POLICIES);
+            return MutationResult.HALTED;
+        }
+
+        // Validate: end date after start date
+        Properties props = (Properties) context.mutation().getMutationProperties();
+        if (props.endDay() <= props.startDay()) {
+            context.validationContext().addCritical(MessageCode.INVALID_DATE_RANGE);
+            return MutationResult.HALTED;
+        }
+
+        // Validate: the projection fits, counting dates only up to the most the dossier's policies allow
+        PolicyTable policies = situation.policies();
+        int policyCount = policies.size();
+        int[] dates = projectionDays(props, (int) Math.min(maxPoints / policyCount, Integer.MAX_VALUE));
+        if (dates == null) {
+            context.validationContext().addCritical(MessageCode.TOO_MANY_PROJECTIONS, Long.toString(maxPoints));
+            return MutationResult.HALTED;
+        }
+
+        int[] employmentStartDays = policies.employmentStartDays();
+
+        // Validate: projections start after every employment
+        for (int i = 0; i < policyCount; i++) {
+            if (props.startDay() < employmentStartDays[i]) {
+                context.validationContext().addWarning(MessageCode.PROJECTION_BEFORE_EMPLOYMENT);
+                break;
+            }
+        }
+
+        double[] effectiveSalaries = new double[policyCount];
+        kernel.effectiveSalaries(policies.salaries(), policies.partTimeFactors(), effectiveSalaries, policyCount);
+        double[] accrualRates = schemeRegistry.accrualRates(context.schemeLookups(), policies.schemeIds(),
+            policyCount);
+        double[] pensions = new double[Math.multiplyExact(policyCount, dates.length)];
+
+        if ((long) policyCount * dates.length < PARALLEL_THRESHOLD) {
+            project(employmentStartDays, effectiveSalaries, accrualRates, policyCount, dates, pensions, 0, dates.length);
+        } else {
+            int ranges = Math.min(dates.length, ForkJoinPool.getCommonPoolParallelism() * 2);
+            IntStream.range(0, ranges).parallel().forEach(range -> project(
+                employmentStartDays, effectiveSalaries, accrualRates, policyCount, dates, pensions,
+                dates.length * range / ranges, dates.length * (range + 1) / ranges
+            ));
+        }
+
+        ChangeLog changes = context.changes();
+        for (int i = 0; i < policyCount; i++) {
+            ProjectionSeries projections = new ProjectionSeries(dates, pensions, i * dates.length);
+            if (changes.enabled()) {
+                changes.setProjections(i, policies.projections(i), projections);
+            }
+            policies.setProjections(i, projections);
+        }
+        policies.markAllChanged();
+
+        return MutationResult.APPLIED;
+    }
+
+    /**
+     * Start date, then every {@code projection_interval_months} after it up to and including the end date; each
+     * date is offset from the start date, so month ends do not drift. {@code null} when there are more than
+     * {@code maxDates}.
+     */
+    private static int[] projectionDays(Properties props, int maxDates) {
+        int[] days = new int[16];
+        int count = 0;
+        for (long months = 0; ; months += props.intervalMonths()) {
+            int day = EpochDays.plusMonths(props.startDay(), months);
+            if (day > props.endDay()) {
+                break;
+            }
+            if (count == maxDates) {
+                return null;
+            }
+            if (count == days.length) {
+                days = Arrays.copyOf(days, Math.min(count * 2, maxDates));
+            }
+            days[count++] = day;
+        }
+        return Arrays.copyOf(days, count);
+    }
+
+    /**
+     * Projects dates {@code from} (inclusive) to {@code to} (exclusive) into the policy-major {@code pensions}.
+     */
+    private static void project(int[] employmentStartDays, double[] effectiveSalaries, double[] accrualRates,
+                                int policyCount, int[] dates, double[] pensions, int from, int to) {
+        int[] daysOfService = new int[policyCount];
+        double[] years = new double[policyCount];
+        for (int i = 0; i < policyCount; i++) {
+            daysOfService[i] = dates[from] - employmentStartDays[i];
+        }
+
+        for (int k = from; k < to; k++) {
+            int delta = k > from ? dates[k] - dates[k - 1] : 0;
+            double totalYears = 0.0;
+            double weightedSum = 0.0;
+            for (int i = 0; i < policyCount; i++) {
+                daysOfService[i] += delta;
+                years[i] = DateArithmetic.yearsOfService(daysOfService[i]);
+                totalYears += years[i];
+                weightedSum += effectiveSalaries[i] * years[i];
+            }
+
+            if (totalYears == 0) {
+                for (int i = 0; i < policyCount; i++) {
+                    pensions[i * dates.length + k] = 0.0;
+                }
+                continue;
+            }
+            double weightedAvgSalary = weightedSum / totalYears;
+            double scale = weightedAvgSalary * totalYears;
+            for (int i = 0; i < policyCount; i++) {
+                double annualPension = scale * accrualRates[i];
+                pensions[i * dates.length + k] = annualPension * (years[i] / totalYears);
+            }
+        }
+    }
+
+    public record Properties(int startDay, int endDay, int intervalMonths) implements MutationProperties {
+
+        public static Properties read(JsonParser parser) throws IOException {
+            int startDay = EpochDays.NONE;
+            int endDay = EpochDays.NONE;
+            int intervalMonths = 0;
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                switch (field) {
+                    case "projection_start_date" -> startDay = JsonFields.readEpochDay(parser);
+                    case "projection_end_date" -> endDay = JsonFields.readEpochDay(parser);
+                    case "projection_interval_months" -> intervalMonths = JsonFields.readInt(parser);
+                    default -> parser.skipChildren();
+                }
+            }
+
+            JsonFields.requireField(parser, startDay != EpochDays.NONE, "projection_start_date");
+            JsonFields.requireField(parser, endDay != EpochDays.NONE, "projection_end_date");
+            JsonFields.requireField(parser, intervalMonths != 0, "projection_interval_months");
+            if (intervalMonths < 1) {
+                throw new JsonParseException(parser, "projection_interval_months must be at least 1");
+            }
+            return new Properties(startDay, endDay, intervalMonths);
+        }
+
+        @Override
+        public void writeFields(JsonGenerator generator) throws IOException {
+            JsonFields.writeEpochDayField(generator, "projection_start_date", startDay);
+            JsonFields.writeEpochDayField(generator, "projection_end_date", endDay);
+            generator.writeNumberField("projection_interval_months", intervalMonths);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package flyt.inschool.mutation.kernel;
+
+/**
+ * Bulk arithmetic over the policy columns of a {@link flyt.inschool.mutation.PolicyTable}. Implementations must
+ * produce bit-identical results; they only differ in how the loops are executed.
+ */
+public interface PolicyKernel {
+
+    /**
+     * Multiplies the salary of every row matching both filters by {@code factor}, clamping negative results to 0.
+     * Touched rows are recorded in {@code matchedRows} (bit {@code i % 64} of word {@code i / 64}).
+     */
+    IndexationResult applyIndexation(
+        double[] salaries,
+        int[] schemeOrdinals,
+        int[] employmentStartDays,
+        int count,
+        boolean filterByScheme,
+        int schemeOrdinalFilter,
+        int effectiveBeforeDay,
+        double factor,
+        long[] matchedRows
+    );
+
+    /**
+     * {@code effectiveSalaries[i] = salaries[i] * partTimeFactors[i]}
+     */
+    void effectiveSalaries(double[] salaries, double[] partTimeFactors, double[] effectiveSalaries, int count);
+
+    /**
+     * {@code pensions[i] = annualPension * (years[i] / totalYears)}
+     */
+    void distributePension(double[] years, double totalYears, double annualPension, double[] pensions, int count);
+
+    record IndexationResult(int matchCount, boolean hadNegativeSalary) {}
+}
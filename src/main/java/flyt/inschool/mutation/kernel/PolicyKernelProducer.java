@@ -0,0 +1,30 @@
+package flyt.inschool.mutation.kernel;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Produces;
+import jakarta.inject.Singleton;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+@ApplicationScoped
+public class PolicyKernelProducer {
+
+    private static final Logger LOG = Logger.getLogger(PolicyKernelProducer.class);
+
+    @ConfigProperty(name = "calculation.kernel.vectorized", defaultValue = "false")
+    boolean vectorized;
+
+    @Produces
+    @Singleton
+    PolicyKernel policyKernel() {
+        if (vectorized) {
+            try {
+                return new VectorPolicyKernel();
+            } catch (LinkageError e) {
+                // jdk.incubator.vector is only resolvable when the JVM runs with --add-modules jdk.incubator.vector
+                LOG.warnf("Vectorized policy kernel unavailable (%s), falling back to the scalar kernel", e);
+            }
+        }
+        return new ScalarPolicyKernel();
+    }
+}
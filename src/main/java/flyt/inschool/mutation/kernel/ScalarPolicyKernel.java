@@ -0,0 +1,60 @@
+package flyt.inschool.mutation.kernel;
+
+public class ScalarPolicyKernel implements PolicyKernel {
+
+    @Override
+    public IndexationResult applyIndexation(double[] salaries, int[] schemeOrdinals, int[] employmentStartDays,
+                                            int count, boolean filterByScheme, int schemeOrdinalFilter,
+                                            int effectiveBeforeDay, double factor, long[] matchedRows) {
+        return applyIndexation(salaries, schemeOrdinals, employmentStartDays, 0, count, filterByScheme,
+            schemeOrdinalFilter, effectiveBeforeDay, factor, matchedRows, 0, false);
+    }
+
+    @Override
+    public void effectiveSalaries(double[] salaries, double[] partTimeFactors, double[] effectiveSalaries, int count) {
+        effectiveSalaries(salaries, partTimeFactors, effectiveSalaries, 0, count);
+    }
+
+    @Override
+    public void distributePension(double[] years, double totalYears, double annualPension, double[] pensions, int count) {
+        distributePension(years, totalYears, annualPension, pensions, 0, count);
+    }
+
+    // Range variants shared with the vectorized kernel for its tail loops
+
+    static IndexationResult applyIndexation(double[] salaries, int[] schemeOrdinals, int[] employmentStartDays,
+                                            int from, int to, boolean filterByScheme, int schemeOrdinalFilter,
+                                            int effectiveBeforeDay, double factor, long[] matchedRows,
+                                            int matchCount, boolean hadNegativeSalary) {
+        for (int i = from; i < to; i++) {
+            if ((filterByScheme && schemeOrdinals[i] != schemeOrdinalFilter)
+                || employmentStartDays[i] >= effectiveBeforeDay) {
+                continue;
+            }
+
+            matchCount++;
+            double newSalary = salaries[i] * factor;
+            if (newSalary < 0) {
+                newSalary = 0;
+                hadNegativeSalary = true;
+            }
+            salaries[i] = newSalary;
+            matchedRows[i >>> 6] |= 1L << i;
+        }
+        return new IndexationResult(matchCount, hadNegativeSalary);
+    }
+
+    static void effectiveSalaries(double[] salaries, double[] partTimeFactors, double[] effectiveSalaries,
+                                  int from, int to) {
+        for (int i = from; i < to; i++) {
+            effectiveSalaries[i] = salaries[i] * partTimeFactors[i];
+        }
+    }
+
+    static void distributePension(double[] years, double totalYears, double annualPension, double[] pensions,
+                                  int from, int to) {
+        for (int i = from; i < to; i++) {
+            pensions[i] = annualPension * (years[i] / totalYears);
+        }
+    }
+}
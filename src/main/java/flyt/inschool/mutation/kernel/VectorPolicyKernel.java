@@ -0,0 +1,83 @@
+package flyt.inschool.mutation.kernel;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * SIMD kernel on top of {@code jdk.incubator.vector}. Filters become lane masks and the arithmetic is purely
+ * element-wise, so every lane computes exactly the same IEEE operation as {@link ScalarPolicyKernel}; the rows
+ * that do not fill a whole vector are handed to the scalar loops.
+ */
+public class VectorPolicyKernel implements PolicyKernel {
+
+    private static final VectorSpecies<Double> DOUBLES = DoubleVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Integer> INTS =
+        VectorSpecies.of(int.class, VectorShape.forBitSize(DOUBLES.length() * Integer.SIZE));
+
+    @Override
+    public IndexationResult applyIndexation(double[] salaries, int[] schemeOrdinals, int[] employmentStartDays,
+                                            int count, boolean filterByScheme, int schemeOrdinalFilter,
+                                            int effectiveBeforeDay, double factor, long[] matchedRows) {
+        int lanes = DOUBLES.length();
+        int upperBound = DOUBLES.loopBound(count);
+        DoubleVector factors = DoubleVector.broadcast(DOUBLES, factor);
+        int matchCount = 0;
+        boolean hadNegativeSalary = false;
+
+        int i = 0;
+        for (; i < upperBound; i += lanes) {
+            VectorMask<Integer> filter = IntVector.fromArray(INTS, employmentStartDays, i)
+                .compare(VectorOperators.LT, effectiveBeforeDay);
+            if (filterByScheme) {
+                filter = filter.and(IntVector.fromArray(INTS, schemeOrdinals, i)
+                    .compare(VectorOperators.EQ, schemeOrdinalFilter));
+            }
+            VectorMask<Double> matches = filter.cast(DOUBLES);
+            if (!matches.anyTrue()) {
+                continue;
+            }
+
+            DoubleVector newSalaries = DoubleVector.fromArray(DOUBLES, salaries, i).mul(factors);
+            VectorMask<Double> negative = newSalaries.compare(VectorOperators.LT, 0.0).and(matches);
+            newSalaries.blend(0.0, negative).intoArray(salaries, i, matches);
+
+            long bits = matches.toLong();
+            matchedRows[i >>> 6] |= bits << i;
+            matchCount += Long.bitCount(bits);
+            hadNegativeSalary |= negative.anyTrue();
+        }
+
+        return ScalarPolicyKernel.applyIndexation(salaries, schemeOrdinals, employmentStartDays, i, count,
+            filterByScheme, schemeOrdinalFilter, effectiveBeforeDay, factor, matchedRows, matchCount,
+            hadNegativeSalary);
+    }
+
+    @Override
+    public void effectiveSalaries(double[] salaries, double[] partTimeFactors, double[] effectiveSalaries, int count) {
+        int upperBound = DOUBLES.loopBound(count);
+        int i = 0;
+        for (; i < upperBound; i += DOUBLES.length()) {
+            DoubleVector.fromArray(DOUBLES, salaries, i)
+                .mul(DoubleVector.fromArray(DOUBLES, partTimeFactors, i))
+                .intoArray(effectiveSalaries, i);
+        }
+        ScalarPolicyKernel.effectiveSalaries(salaries, partTimeFactors, effectiveSalaries, i, count);
+    }
+
+    @Override
+    public void distributePension(double[] years, double totalYears, double annualPension, double[] pensions, int count) {
+        int upperBound = DOUBLES.loopBound(count);
+        int i = 0;
+        for (; i < upperBound; i += DOUBLES.length()) {
+            DoubleVector.fromArray(DOUBLES, years, i)
+                .div(totalYears)
+                .mul(annualPension)
+                .intoArray(pensions, i);
+        }
+        ScalarPolicyKernel.distributePension(years, totalYears, annualPension, pensions, i, count);
+    }
+}
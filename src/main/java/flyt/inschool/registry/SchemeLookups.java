@@ -0,0 +1,36 @@
+package flyt.inschool.registry;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The scheme lookups a request started before its calculation was dispatched, by scheme id. Processors read their
+ * rates from these futures rather than from the registry cache, which may have evicted an entry in the meantime,
+ * so a calculation left on the event loop because its lookups had completed never waits on a new one.
+ */
+public final class SchemeLookups {
+
+    public static final SchemeLookups NONE = new SchemeLookups(Map.of());
+
+    private final Map<String, CompletableFuture<Double>> lookups;
+
+    SchemeLookups(Map<String, CompletableFuture<Double>> lookups) {
+        this.lookups = lookups;
+    }
+
+    /**
+     * Whether every lookup has completed, so the calculation will not block on any of them.
+     */
+    public boolean resolved() {
+        for (CompletableFuture<Double> lookup : lookups.values()) {
+            if (!lookup.isDone()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    CompletableFuture<Double> get(String schemeId) {
+        return lookups.get(schemeId);
+    }
+}
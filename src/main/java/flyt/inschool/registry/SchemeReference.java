@@ -0,0 +1,9 @@
+package flyt.inschool.registry;
+
+/**
+ * Mutation properties that bring a scheme into the dossier, so its registry parameters can be prefetched before
+ * the mutations run.
+ */
+public interface SchemeReference {
+    String schemeId();
+}
@@ -0,0 +1,176 @@
+package flyt.inschool.registry;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import flyt.inschool.metrics.CalculationMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Looks up scheme parameters at {@code GET {SCHEME_REGISTRY_URL}/schemes/{scheme_id}}. Lookups are asynchronous
+ * over one pooled keep-alive {@link HttpClient} and go through a bounded TTL cache that also shares in-flight
+ * lookups, so concurrent requests for the same scheme cause a single upstream call. A failed or timed-out lookup
+ * yields {@link #DEFAULT_ACCRUAL_RATE} and is not cached.
+ */
+@ApplicationScoped
+public class SchemeRegistryClient {
+
+    public static final double DEFAULT_ACCRUAL_RATE = 0.02;
+
+    private static final Logger LOG = Logger.getLogger(SchemeRegistryClient.class);
+
+    private static final CompletableFuture<Double> DEFAULT = CompletableFuture.completedFuture(DEFAULT_ACCRUAL_RATE);
+
+    @ConfigProperty(name = "scheme.registry.url")
+    Optional<String> url;
+
+    @ConfigProperty(name = "scheme.registry.timeout", defaultValue = "2s")
+    Duration timeout;
+
+    @ConfigProperty(name = "scheme.registry.cache.ttl", defaultValue = "5m")
+    Duration cacheTtl;
+
+    @ConfigProperty(name = "scheme.registry.cache.max-size", defaultValue = "10000")
+    long cacheMaxSize;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @Inject
+    CalculationMetrics metrics;
+
+    private String schemesUrl;
+    private HttpClient httpClient;
+    private AsyncLoadingCache<String, Double> accrualRates;
+
+    @PostConstruct
+    void init() {
+        if (url.isEmpty() || url.get().isBlank()) {
+            return;
+        }
+        String base = url.get();
+        schemesUrl = (base.endsWith("/") ? base : base + "/") + "schemes/";
+        httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(timeout)
+            .build();
+        accrualRates = Caffeine.newBuilder()
+            .maximumSize(cacheMaxSize)
+            .expireAfterWrite(cacheTtl)
+            .buildAsync(this::fetchAccrualRate);
+    }
+
+    @PreDestroy
+    void close() {
+        if (httpClient != null) {
+            httpClient.close();
+        }
+    }
+
+    public boolean enabled() {
+        return accrualRates != null;
+    }
+
+    /**
+     * Accrual rate of a scheme; never completes exceptionally.
+     */
+    public CompletableFuture<Double> accrualRate(String schemeId) {
+        if (accrualRates == null || schemeId == null) {
+            return DEFAULT;
+        }
+        return accrualRates.get(schemeId).exceptionally(e -> {
+            LOG.warnf("Scheme registry lookup for %s failed (%s), using the default accrual rate", schemeId, e);
+            return DEFAULT_ACCRUAL_RATE;
+        });
+    }
+
+    /**
+     * Accrual rate of each of the first {@code count} schemes, taken from the lookups the request started up front.
+     * A scheme none of its mutations referred to is looked up here; all unique lookups are started before waiting
+     * on any of them, so they run concurrently.
+     */
+    public double[] accrualRates(SchemeLookups prefetched, String[] schemeIds, int count) {
+        double[] rates = new double[count];
+        if (accrualRates == null) {
+            Arrays.fill(rates, DEFAULT_ACCRUAL_RATE);
+            return rates;
+        }
+        Map<String, CompletableFuture<Double>> lookups = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            lookups.computeIfAbsent(schemeIds[i], schemeId -> {
+                CompletableFuture<Double> lookup = prefetched.get(schemeId);
+                return lookup != null ? lookup : accrualRate(schemeId);
+            });
+        }
+        long startedAt = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            rates[i] = lookups.get(schemeIds[i]).join();
+        }
+        metrics.recordRegistryWait(System.nanoTime() - startedAt);
+        return rates;
+    }
+
+    /**
+     * Starts the lookups of the given schemes, sharing those cached or already in flight.
+     */
+    public SchemeLookups prefetch(Collection<String> schemeIds) {
+        if (accrualRates == null || schemeIds.isEmpty()) {
+            return SchemeLookups.NONE;
+        }
+        Map<String, CompletableFuture<Double>> lookups = new HashMap<>();
+        for (String schemeId : schemeIds) {
+            if (schemeId != null) {
+                lookups.computeIfAbsent(schemeId, this::accrualRate);
+            }
+        }
+        return new SchemeLookups(lookups);
+    }
+
+    private CompletableFuture<Double> fetchAccrualRate(String schemeId, Executor executor) {
+        URI uri = URI.create(schemesUrl + URLEncoder.encode(schemeId, StandardCharsets.UTF_8));
+        HttpRequest request = HttpRequest.newBuilder(uri)
+            .timeout(timeout)
+            .header("Accept", "application/json")
+            .GET()
+            .build();
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+            .thenApply(response -> parseAccrualRate(schemeId, response));
+    }
+
+    private double parseAccrualRate(String schemeId, HttpResponse<byte[]> response) {
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("HTTP " + response.statusCode() + " for scheme " + schemeId);
+        }
+        try {
+            JsonNode accrualRate = objectMapper.readTree(response.body()).get("accrual_rate");
+            if (accrualRate == null || !accrualRate.isNumber()) {
+                throw new IllegalStateException("No accrual_rate for scheme " + schemeId);
+            }
+            return accrualRate.doubleValue();
+        } catch (IOException e) {
+            throw new IllegalStateException("Invalid registry response for scheme " + schemeId, e);
+        }
+    }
+}
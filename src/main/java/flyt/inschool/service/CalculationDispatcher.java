@@ -0,0 +1,78 @@
+package flyt.inschool.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.virtual.threads.VirtualThreads;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Runs calculations according to {@link ExecutionMode}; in event-loop mode, calculations that may block on the
+ * scheme registry still go to a virtual thread. Off the event loop, at most
+ * {@code calculation.execution.max-concurrency} calculations run at once; the time a request waits for a worker
+ * or a virtual thread and an admission permit is recorded as {@code calculation.queue.time}.
+ */
+@ApplicationScoped
+public class CalculationDispatcher {
+
+    @ConfigProperty(name = "calculation.execution.mode", defaultValue = "event-loop")
+    ExecutionMode mode;
+
+    @ConfigProperty(name = "calculation.execution.max-concurrency", defaultValue = "256")
+    int maxConcurrency;
+
+    @Inject
+    @VirtualThreads
+    ExecutorService virtualThreads;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    private Executor executor;
+    private Executor blockingExecutor;
+    private Semaphore admission;
+    private Timer queueTime;
+
+    @PostConstruct
+    void init() {
+        executor = switch (mode) {
+            case EVENT_LOOP -> null;
+            case WORKER -> Infrastructure.getDefaultWorkerPool();
+            case VIRTUAL_THREAD -> virtualThreads;
+        };
+        blockingExecutor = executor != null ? executor : virtualThreads;
+        admission = new Semaphore(maxConcurrency);
+        queueTime = Timer.builder("calculation.queue.time")
+            .description("Time a calculation waits for a thread and an admission permit")
+            .tag("mode", mode.name().toLowerCase())
+            .register(meterRegistry);
+    }
+
+    public <T> Uni<T> dispatch(Supplier<T> calculation, boolean mayBlock) {
+        Executor target = mayBlock ? blockingExecutor : executor;
+        if (target == null) {
+            return Uni.createFrom().item(calculation);
+        }
+        long submittedAt = System.nanoTime();
+        return Uni.createFrom().item(() -> {
+            // Blocking on the permit is fine here: only worker or virtual threads get this far
+            admission.acquireUninterruptibly();
+            try {
+                queueTime.record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+                return calculation.get();
+            } finally {
+                admission.release();
+            }
+        }).runSubscriptionOn(target);
+    }
+}
@@ -1,17 +1,23 @@
 package flyt.inschool.service;
 
 import flyt.inschool.api.dto.*;
+import flyt.inschool.metrics.CalculationMetrics;
 import flyt.inschool.mutation.ExecutionResult;
 import flyt.inschool.mutation.MutationExecutor;
+import flyt.inschool.mutation.MutationProcessor;
+import flyt.inschool.mutation.MutationRegistry;
+import flyt.inschool.registry.SchemeLookups;
+import flyt.inschool.registry.SchemeReference;
+import flyt.inschool.registry.SchemeRegistryClient;
+import flyt.inschool.util.CoarseClock;
+import flyt.inschool.util.RandomUuids;
 import flyt.inschool.validation.ValidationContext;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 
 import java.time.Instant;
-import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.UUID;
 
 @ApplicationScoped
 public class CalculationService {
@@ -19,18 +25,118 @@ public class CalculationService {
     @Inject
     MutationExecutor executor;
 
-    public CalculationResponse process(CalculationRequest request) {
-        String calculationId = UUID.randomUUID().toString();
-        Instant startTime = Instant.now();
+    @Inject
+    MutationRegistry registry;
+
+    @Inject
+    SchemeRegistryClient schemeRegistry;
+
+    @Inject
+    ResultCache resultCache;
+
+    @Inject
+    CalculationMetrics metrics;
+
+    public CalculationService() {
+    }
+
+    public CalculationService(MutationExecutor executor, MutationRegistry registry,
+                              SchemeRegistryClient schemeRegistry, ResultCache resultCache,
+                              CalculationMetrics metrics) {
+        this.executor = executor;
+        this.registry = registry;
+        this.schemeRegistry = schemeRegistry;
+        this.resultCache = resultCache;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Starts registry lookups for every scheme the request's mutations bring in, if any of its mutations needs
+     * the registry, so the round-trips overlap with the mutations executed before them. Lookups already cached or
+     * in flight are shared. The calculation must be given the returned lookups, and may only stay on the event
+     * loop when they are {@linkplain SchemeLookups#resolved() resolved}.
+     */
+    public SchemeLookups prefetchSchemes(CalculationRequest request) {
+        List<CalculationMutation> mutations = request.calculationInstructions().mutations();
+        if (!usesSchemeRegistry(mutations)) {
+            return SchemeLookups.NONE;
+        }
+        List<String> schemeIds = new ArrayList<>();
+        for (CalculationMutation mutation : mutations) {
+            if (mutation.getMutationProperties() instanceof SchemeReference reference) {
+                schemeIds.add(reference.schemeId());
+            }
+        }
+        return schemeRegistry.prefetch(schemeIds);
+    }
+
+    private boolean usesSchemeRegistry(List<CalculationMutation> mutations) {
+        for (CalculationMutation mutation : mutations) {
+            // Mutations without a name are reported by the executor
+            String name = mutation.getMutationDefinitionName();
+            MutationProcessor processor = name != null ? registry.get(name) : null;
+            if (processor != null && processor.usesSchemeRegistry()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The 400 error for a request that cannot be calculated at all, or {@code null} when it can.
+     */
+    public static ErrorResponse validate(CalculationRequest request) {
+        if (request == null || request.calculationInstructions() == null) {
+            return new ErrorResponse(400, "Invalid request structure");
+        }
+        if (request.calculationInstructions().mutations() == null
+            || request.calculationInstructions().mutations().isEmpty()) {
+            return new ErrorResponse(400, "Mutations list cannot be empty");
+        }
+        return null;
+    }
+
+    /**
+     * @param includePatches whether processed mutations carry forward and backward JSON patches
+     */
+    public CalculationResponse process(CalculationRequest request, boolean includePatches) {
+        return process(request, includePatches, prefetchSchemes(request));
+    }
+
+    /**
+     * @param includePatches whether processed mutations carry forward and backward JSON patches
+     * @param schemes        the lookups {@link #prefetchSchemes} started for this request
+     */
+    public CalculationResponse process(CalculationRequest request, boolean includePatches, SchemeLookups schemes) {
+        String calculationId = RandomUuids.next().toString();
+        Instant startTime = CoarseClock.now();
+        long startedAt = System.nanoTime();
 
         ValidationContext validationContext = new ValidationContext();
         List<CalculationMutation> mutations = request.calculationInstructions().mutations();
 
-        // Execute mutations
-        ExecutionResult result = executor.execute(mutations, validationContext);
+        // Serve resent instructions from the result cache, unless the result depends on live registry rates
+        ResultCache.Key cacheKey = resultCache.enabled() && !usesSchemeRegistry(mutations)
+            ? resultCache.key(request, includePatches)
+            : null;
+        if (cacheKey != null) {
+            ResultCache.CachedResult cached = resultCache.get(cacheKey);
+            if (cached != null) {
+                CalculationMetadata metadata = metadata(calculationId, request, startTime, startedAt,
+                    cached.outcome());
+                return new CalculationResponse(metadata, null, cached.json());
+            }
+        }
 
-        Instant endTime = Instant.now();
-        long durationMs = ChronoUnit.MILLIS.between(startTime, endTime);
+        // Execute mutations
+        long executeStartedAt = System.nanoTime();
+        ExecutionResult result = executor.execute(mutations, validationContext, includePatches, schemes);
+        long executedAt = System.nanoTime();
+        metrics.recordPhase(CalculationMetrics.Phase.EXECUTE, executedAt - executeStartedAt);
+        metrics.countMessages(validationContext.getMessages());
+        if (result.endSituation().dossier() != null) {
+            metrics.recordPolicies(result.endSituation().dossier().policies().size());
+        }
 
         // Determine outcome
         CalculationOutcome outcome = validationContext.hasCriticalError()
@@ -38,23 +144,16 @@ public class CalculationService {
             : CalculationOutcome.SUCCESS;
 
         // Build metadata
-        CalculationMetadata metadata = new CalculationMetadata(
-            calculationId,
-            request.tenantId(),
-            startTime,
-            endTime,
-            durationMs,
-            outcome
-        );
+        CalculationMetadata metadata = metadata(calculationId, request, startTime, startedAt, outcome);
 
         // Build processed mutations list
         List<ProcessedMutation> processedMutations = new ArrayList<>();
         for (ExecutionResult.MutationWithMessages mwm : result.processedMutations()) {
             processedMutations.add(new ProcessedMutation(
                 mwm.mutation(),
-                null,  // forward_patch (bonus feature)
-                null,  // backward_patch (bonus feature)
-                mwm.messageIndexes()
+                mwm.changes(),
+                mwm.messageStart(),
+                mwm.messageEnd()
             ));
         }
 
@@ -86,6 +185,28 @@ public class CalculationService {
             initialSituation
         );
 
-        return new CalculationResponse(metadata, calculationResult);
+        CalculationResponse response = cacheKey != null
+            ? new CalculationResponse(metadata, calculationResult, resultCache.put(cacheKey, calculationResult, outcome))
+            : new CalculationResponse(metadata, calculationResult);
+        metrics.recordPhase(CalculationMetrics.Phase.BUILD_RESPONSE, System.nanoTime() - executedAt);
+        return response;
+    }
+
+    /**
+     * Timestamps come from the coarse wall clock; the duration is measured on the monotonic clock from
+     * {@code startedAt} and rounded to whole milliseconds, as the API specifies. Sub-millisecond timings are in the
+     * {@code calculation.phase.time} metrics.
+     */
+    private static CalculationMetadata metadata(String calculationId, CalculationRequest request, Instant startTime,
+                                                long startedAt, CalculationOutcome outcome) {
+        long elapsedNanos = System.nanoTime() - startedAt;
+        return new CalculationMetadata(
+            calculationId,
+            request.tenantId(),
+            startTime,
+            CoarseClock.now(),
+            (elapsedNanos + 500_000) / 1_000_000,
+            outcome
+        );
     }
 }
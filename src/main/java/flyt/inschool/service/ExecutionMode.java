@@ -0,0 +1,10 @@
+package flyt.inschool.service;
+
+/**
+ * Where {@link CalculationDispatcher} runs a calculation, selected with {@code calculation.execution.mode}.
+ */
+public enum ExecutionMode {
+    EVENT_LOOP,
+    WORKER,
+    VIRTUAL_THREAD
+}
@@ -0,0 +1,128 @@
+package flyt.inschool.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import flyt.inschool.api.dto.CalculationMutation;
+import flyt.inschool.api.dto.CalculationOutcome;
+import flyt.inschool.api.dto.CalculationRequest;
+import flyt.inschool.api.dto.CalculationResult;
+import flyt.inschool.api.json.CalculationResponseWriter;
+import flyt.inschool.api.json.CanonicalMutations;
+import flyt.inschool.util.Hash128;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * Serialized {@code calculation_result}s of recent requests, keyed by the request's canonical form (tenant, patch
+ * opt-out and every mutation with its properties as echoed): looked up by its 128-bit hash, and only a hit whose
+ * canonical bytes are equal counts, so a hash collision cannot serve another request's result. Bounded by the
+ * estimated bytes held, with Caffeine's W-TinyLFU admission; hit and miss counts are published as {@code cache.*}
+ * meters.
+ */
+@ApplicationScoped
+public class ResultCache {
+
+    // Key, entry and array headers on top of the serialized bytes
+    private static final int ENTRY_OVERHEAD_BYTES = 96;
+
+    @ConfigProperty(name = "calculation.result-cache.enabled", defaultValue = "false")
+    boolean enabled;
+
+    @ConfigProperty(name = "calculation.result-cache.max-bytes", defaultValue = "67108864")
+    long maxBytes;
+
+    @ConfigProperty(name = "calculation.result-cache.ttl", defaultValue = "10m")
+    Duration ttl;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    private Cache<Key, CachedResult> cache;
+
+    public record CachedResult(byte[] json, CalculationOutcome outcome) {
+    }
+
+    /**
+     * A request's canonical form and its hash; equal only when the canonical bytes are.
+     */
+    public record Key(Hash128 hash, byte[] canonical) {
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Key key && hash.equals(key.hash) && Arrays.equals(canonical, key.canonical);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash.hashCode();
+        }
+    }
+
+    @PostConstruct
+    void init() {
+        if (!enabled) {
+            return;
+        }
+        cache = Caffeine.newBuilder()
+            .maximumWeight(maxBytes)
+            .weigher((Key key, CachedResult value) ->
+                key.canonical().length + value.json().length + ENTRY_OVERHEAD_BYTES)
+            .expireAfterWrite(ttl)
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "calculation-results");
+    }
+
+    public boolean enabled() {
+        return cache != null;
+    }
+
+    public CachedResult get(Key key) {
+        return cache.getIfPresent(key);
+    }
+
+    /**
+     * Serializes and stores a freshly calculated result; returns the bytes so the response can reuse them.
+     */
+    public byte[] put(Key key, CalculationResult result, CalculationOutcome outcome) {
+        try {
+            byte[] json = CalculationResponseWriter.serializeResult(result, objectMapper);
+            cache.put(key, new CachedResult(json, outcome));
+            return json;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public Key key(CalculationRequest request, boolean includePatches) {
+        ByteArrayOutputStream canonical = new ByteArrayOutputStream(512);
+        try (JsonGenerator generator = objectMapper.createGenerator(canonical)) {
+            generator.writeStartArray();
+            generator.writeString(request.tenantId());
+            generator.writeBoolean(includePatches);
+            for (CalculationMutation mutation : request.calculationInstructions().mutations()) {
+                CanonicalMutations.write(generator, mutation);
+            }
+            generator.writeEndArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        byte[] bytes = canonical.toByteArray();
+        return new Key(Hash128.of(bytes, 0, bytes.length), bytes);
+    }
+}
@@ -0,0 +1,70 @@
+package flyt.inschool.util;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+/**
+ * The wall clock at millisecond precision, with the current instant's ISO-8601 text and today's date cached until
+ * the clock moves past them, so reading and formatting timestamps is a field load on most calls. For durations use
+ * {@link System#nanoTime()}: this clock follows system time adjustments.
+ */
+public class CoarseClock {
+
+    private record Tick(long epochMilli, Instant instant, String iso) {
+    }
+
+    private record Today(long startMilli, long endMilli, int epochDay) {
+    }
+
+    private static volatile Tick tick = tick(System.currentTimeMillis());
+    private static volatile Today today = today(System.currentTimeMillis());
+
+    public static Instant now() {
+        return current().instant();
+    }
+
+    /**
+     * {@link Instant#toString()} of {@code instant}, taken from the cache when it is the clock's current instant.
+     */
+    public static String format(Instant instant) {
+        Tick cached = tick;
+        return cached.instant().equals(instant) ? cached.iso() : instant.toString();
+    }
+
+    /**
+     * Today's date in the system default time zone, as {@link LocalDate#now()}.
+     */
+    public static int todayEpochDay() {
+        long millis = System.currentTimeMillis();
+        Today cached = today;
+        if (millis < cached.startMilli() || millis >= cached.endMilli()) {
+            cached = today(millis);
+            today = cached;
+        }
+        return cached.epochDay();
+    }
+
+    private static Tick current() {
+        long millis = System.currentTimeMillis();
+        Tick cached = tick;
+        if (cached.epochMilli() != millis) {
+            cached = tick(millis);
+            tick = cached;
+        }
+        return cached;
+    }
+
+    private static Tick tick(long epochMilli) {
+        Instant instant = Instant.ofEpochMilli(epochMilli);
+        return new Tick(epochMilli, instant, instant.toString());
+    }
+
+    private static Today today(long epochMilli) {
+        ZoneId zone = ZoneId.systemDefault();
+        LocalDate date = LocalDate.ofInstant(Instant.ofEpochMilli(epochMilli), zone);
+        long start = date.atStartOfDay(zone).toInstant().toEpochMilli();
+        long end = date.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli();
+        return new Today(start, end, (int) date.toEpochDay());
+    }
+}
@@ -1,17 +1,21 @@
 package flyt.inschool.util;
 
-import java.time.LocalDate;
-import java.time.temporal.ChronoUnit;
-
 public class DateArithmetic {
 
     private static final double DAYS_PER_YEAR = 365.25;
 
-    public static double calculateYearsOfService(LocalDate startDate, LocalDate endDate) {
-        if (endDate.isBefore(startDate)) {
+    public static double calculateYearsOfService(int startDay, int endDay) {
+        return yearsOfService(endDay - startDay);
+    }
+
+    /**
+     * Years for a day count that may be negative (the end before the start); the same value
+     * {@link #calculateYearsOfService} gives for any two days that far apart.
+     */
+    public static double yearsOfService(int days) {
+        if (days < 0) {
             return 0.0;
         }
-        long days = ChronoUnit.DAYS.between(startDate, endDate);
         return days / DAYS_PER_YEAR;
     }
 }
@@ -0,0 +1,129 @@
+package flyt.inschool.util;
+
+/**
+ * Dates as {@code int} days since 1970-01-01 (the same numbering as {@link java.time.LocalDate#toEpochDay()}),
+ * converted to and from {@code yyyy-MM-dd} without going through {@code LocalDate} or intermediate strings.
+ */
+public class EpochDays {
+
+    public static final int NONE = Integer.MIN_VALUE;
+
+    private static final int DAYS_0000_TO_1970 = 719_468;
+
+    public static int parse(char[] buffer, int offset, int length) {
+        if (length != 10 || buffer[offset + 4] != '-' || buffer[offset + 7] != '-') {
+            throw invalid(buffer, offset, length);
+        }
+        int year = digits(buffer, offset, 4);
+        int month = digits(buffer, offset + 5, 2);
+        int day = digits(buffer, offset + 8, 2);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month)) {
+            throw invalid(buffer, offset, length);
+        }
+        return of(year, month, day);
+    }
+
+    public static int parse(String text) {
+        return parse(text.toCharArray(), 0, text.length());
+    }
+
+    /**
+     * Days-from-civil over 400-year eras with March-based years, so leap days fall at the end of a year.
+     */
+    public static int of(int year, int month, int day) {
+        int y = month <= 2 ? year - 1 : year;
+        int era = Math.floorDiv(y, 400);
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146_097 + dayOfEra - DAYS_0000_TO_1970;
+    }
+
+    /**
+     * Whole years from {@code startDay} to {@code endDay}, as {@code Period.between(start, end).getYears()}: an
+     * anniversary on February 29 is only reached on February 29. Negative when the end lies before the start.
+     */
+    public static int yearsBetween(int startDay, int endDay) {
+        return (yyyymmdd(endDay) - yyyymmdd(startDay)) / 10_000;
+    }
+
+    /**
+     * As {@code LocalDate.plusMonths}: the day of month is clamped to the length of the resulting month.
+     */
+    public static int plusMonths(int epochDay, long months) {
+        int date = yyyymmdd(epochDay);
+        long monthIndex = date / 10_000 * 12L + (date / 100 % 100 - 1) + months;
+        int year = (int) Math.floorDiv(monthIndex, 12);
+        int month = Math.floorMod(monthIndex, 12) + 1;
+        return of(year, month, Math.min(date % 100, lengthOfMonth(year, month)));
+    }
+
+    public static String format(int epochDay) {
+        char[] chars = new char[10];
+        format(epochDay, chars, 0);
+        return new String(chars);
+    }
+
+    /**
+     * Writes the 10 characters of {@code yyyy-MM-dd} into {@code chars} at {@code offset}; years must lie within
+     * {@code 0000-9999}.
+     */
+    public static void format(int epochDay, char[] chars, int offset) {
+        int date = yyyymmdd(epochDay);
+        int year = date / 10_000;
+        int month = date / 100 % 100;
+        int day = date % 100;
+
+        chars[offset] = (char) ('0' + year / 1000 % 10);
+        chars[offset + 1] = (char) ('0' + year / 100 % 10);
+        chars[offset + 2] = (char) ('0' + year / 10 % 10);
+        chars[offset + 3] = (char) ('0' + year % 10);
+        chars[offset + 4] = '-';
+        chars[offset + 5] = (char) ('0' + month / 10);
+        chars[offset + 6] = (char) ('0' + month % 10);
+        chars[offset + 7] = '-';
+        chars[offset + 8] = (char) ('0' + day / 10);
+        chars[offset + 9] = (char) ('0' + day % 10);
+    }
+
+    /**
+     * The date as the decimal number {@code yyyyMMdd}, which orders like the date itself; years within
+     * {@code 0000-9999}.
+     */
+    private static int yyyymmdd(int epochDay) {
+        int z = epochDay + DAYS_0000_TO_1970;
+        int era = Math.floorDiv(z, 146_097);
+        int dayOfEra = z - era * 146_097;
+        int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36_524 - dayOfEra / 146_096) / 365;
+        int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        int mp = (5 * dayOfYear + 2) / 153;
+        int day = dayOfYear - (153 * mp + 2) / 5 + 1;
+        int month = mp < 10 ? mp + 3 : mp - 9;
+        int year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+        return year * 10_000 + month * 100 + day;
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        return switch (month) {
+            case 2 -> (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)) ? 29 : 28;
+            case 4, 6, 9, 11 -> 30;
+            default -> 31;
+        };
+    }
+
+    private static int digits(char[] buffer, int offset, int count) {
+        int value = 0;
+        for (int i = offset; i < offset + count; i++) {
+            int digit = buffer[i] - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static IllegalArgumentException invalid(char[] buffer, int offset, int length) {
+        return new IllegalArgumentException("Invalid date: " + new String(buffer, offset, length));
+    }
+}
@@ -0,0 +1,226 @@
+package flyt.inschool.util;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Immutable list backed by a 32-way bit-partitioned trie with a tail buffer. Appends and single-element
+ * updates copy at most one path of the trie and share everything else with the previous version.
+ */
+public final class PersistentVector<E> extends AbstractList<E> implements RandomAccess {
+
+    private static final int BITS = 5;
+    private static final int WIDTH = 1 << BITS;
+    private static final int MASK = WIDTH - 1;
+
+    private static final Node EMPTY_NODE = new Node(null, new Object[WIDTH]);
+    private static final PersistentVector<?> EMPTY = new PersistentVector<>(0, BITS, EMPTY_NODE, new Object[0]);
+
+    private final int size;
+    private final int shift;
+    private final Node root;
+    private final Object[] tail;
+
+    private PersistentVector(int size, int shift, Node root, Object[] tail) {
+        this.size = size;
+        this.shift = shift;
+        this.root = root;
+        this.tail = tail;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <E> PersistentVector<E> empty() {
+        return (PersistentVector<E>) EMPTY;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <E> PersistentVector<E> from(List<? extends E> elements) {
+        if (elements instanceof PersistentVector<?> vector) {
+            return (PersistentVector<E>) vector;
+        }
+        PersistentVector<E> vector = empty();
+        for (E element : elements) {
+            vector = vector.append(element);
+        }
+        return vector;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E get(int index) {
+        return (E) arrayFor(index)[index & MASK];
+    }
+
+    public PersistentVector<E> append(E element) {
+        int tailSize = size - tailOffset();
+        if (tailSize < WIDTH) {
+            Object[] newTail = Arrays.copyOf(tail, tailSize + 1);
+            newTail[tailSize] = element;
+            return new PersistentVector<>(size + 1, shift, root, newTail);
+        }
+
+        Node tailNode = new Node(null, tail);
+        Node newRoot;
+        int newShift = shift;
+        if ((size >>> BITS) > (1 << shift)) {
+            // Root is full: grow the trie by one level
+            newRoot = new Node(null, new Object[WIDTH]);
+            newRoot.array[0] = root;
+            newRoot.array[1] = newPath(shift, tailNode);
+            newShift += BITS;
+        } else {
+            newRoot = pushTail(shift, root, tailNode);
+        }
+        return new PersistentVector<>(size + 1, newShift, newRoot, new Object[]{element});
+    }
+
+    public PersistentVector<E> update(int index, E element) {
+        checkIndex(index);
+        if (index >= tailOffset()) {
+            Object[] newTail = tail.clone();
+            newTail[index & MASK] = element;
+            return new PersistentVector<>(size, shift, root, newTail);
+        }
+        return new PersistentVector<>(size, shift, assoc(shift, root, index, element), tail);
+    }
+
+    /**
+     * Batch of in-place updates for callers that touch many elements at once; every node is copied at most
+     * once per batch instead of once per update.
+     */
+    public Updater<E> updater() {
+        return new Updater<>(this);
+    }
+
+    private int tailOffset() {
+        return size < WIDTH ? 0 : ((size - 1) >>> BITS) << BITS;
+    }
+
+    private Object[] arrayFor(int index) {
+        checkIndex(index);
+        if (index >= tailOffset()) {
+            return tail;
+        }
+        Node node = root;
+        for (int level = shift; level > 0; level -= BITS) {
+            node = (Node) node.array[(index >>> level) & MASK];
+        }
+        return node.array;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+        }
+    }
+
+    private Node pushTail(int level, Node parent, Node tailNode) {
+        int subIndex = ((size - 1) >>> level) & MASK;
+        Node result = new Node(null, parent.array.clone());
+        Node nodeToInsert;
+        if (level == BITS) {
+            nodeToInsert = tailNode;
+        } else {
+            Node child = (Node) parent.array[subIndex];
+            nodeToInsert = child != null
+                ? pushTail(level - BITS, child, tailNode)
+                : newPath(level - BITS, tailNode);
+        }
+        result.array[subIndex] = nodeToInsert;
+        return result;
+    }
+
+    private static Node newPath(int level, Node node) {
+        if (level == 0) {
+            return node;
+        }
+        Node path = new Node(null, new Object[WIDTH]);
+        path.array[0] = newPath(level - BITS, node);
+        return path;
+    }
+
+    private static Node assoc(int level, Node node, int index, Object element) {
+        Node result = new Node(null, node.array.clone());
+        if (level == 0) {
+            result.array[index & MASK] = element;
+        } else {
+            int subIndex = (index >>> level) & MASK;
+            result.array[subIndex] = assoc(level - BITS, (Node) node.array[subIndex], index, element);
+        }
+        return result;
+    }
+
+    private static final class Node {
+        final Object edit;
+        final Object[] array;
+
+        Node(Object edit, Object[] array) {
+            this.edit = edit;
+            this.array = array;
+        }
+    }
+
+    public static final class Updater<E> {
+        private final int size;
+        private final int shift;
+        private final int tailOffset;
+        private Object edit = new Object();
+        private Node root;
+        private Object[] tail;
+        private boolean tailOwned;
+
+        private Updater(PersistentVector<E> vector) {
+            this.size = vector.size;
+            this.shift = vector.shift;
+            this.tailOffset = vector.tailOffset();
+            this.root = vector.root;
+            this.tail = vector.tail;
+        }
+
+        public Updater<E> set(int index, E element) {
+            if (edit == null) {
+                throw new IllegalStateException("Updater already built");
+            }
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+            }
+            if (index >= tailOffset) {
+                if (!tailOwned) {
+                    tail = tail.clone();
+                    tailOwned = true;
+                }
+                tail[index & MASK] = element;
+            } else {
+                root = assoc(shift, root, index, element);
+            }
+            return this;
+        }
+
+        public PersistentVector<E> build() {
+            edit = null;
+            return new PersistentVector<>(size, shift, root, tail);
+        }
+
+        private Node editable(Node node) {
+            return node.edit == edit ? node : new Node(edit, node.array.clone());
+        }
+
+        private Node assoc(int level, Node node, int index, Object element) {
+            Node result = editable(node);
+            if (level == 0) {
+                result.array[index & MASK] = element;
+            } else {
+                int subIndex = (index >>> level) & MASK;
+                result.array[subIndex] = assoc(level - BITS, (Node) result.array[subIndex], index, element);
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package flyt.inschool.util;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Version 4 UUIDs from {@link ThreadLocalRandom}, for identifiers that must be unique but need not be
+ * unpredictable. Unlike {@link UUID#randomUUID()} this never touches the shared {@code SecureRandom}, so threads
+ * do not contend on it.
+ */
+public class RandomUuids {
+
+    public static UUID next() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long high = (random.nextLong() & 0xFFFF_FFFF_FFFF_0FFFL) | 0x4000L;
+        long low = (random.nextLong() & 0x3FFF_FFFF_FFFF_FFFFL) | 0x8000_0000_0000_0000L;
+        return new UUID(high, low);
+    }
+}
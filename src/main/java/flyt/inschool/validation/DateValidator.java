@@ -1,18 +1,18 @@
 package flyt.inschool.validation;
 
-import java.time.LocalDate;
+import flyt.inschool.util.CoarseClock;
 
 public class DateValidator {
 
-    public static boolean isFutureDate(LocalDate date) {
-        return date.isAfter(LocalDate.now());
+    public static boolean isFutureDate(int epochDay) {
+        return epochDay > CoarseClock.todayEpochDay();
     }
 
-    public static boolean isBefore(LocalDate date1, LocalDate date2) {
-        return date1.isBefore(date2);
+    public static boolean isBefore(int epochDay1, int epochDay2) {
+        return epochDay1 < epochDay2;
     }
 
-    public static boolean isValidBirthDate(LocalDate birthDate) {
-        return !isFutureDate(birthDate);
+    public static boolean isValidBirthDate(int birthDay) {
+        return !isFutureDate(birthDay);
     }
 }
@@ -1,15 +1,14 @@
 package flyt.inschool.validation;
 
-import java.time.LocalDate;
-import java.time.Period;
+import flyt.inschool.util.EpochDays;
 
 public class EligibilityValidator {
 
     private static final int MIN_AGE = 65;
     private static final double MIN_YEARS_OF_SERVICE = 40.0;
 
-    public static boolean isEligibleForRetirement(LocalDate birthDate, LocalDate retirementDate, double totalYearsOfService) {
-        int age = Period.between(birthDate, retirementDate).getYears();
+    public static boolean isEligibleForRetirement(int birthDay, int retirementDay, double totalYearsOfService) {
+        int age = EpochDays.yearsBetween(birthDay, retirementDay);
         return age >= MIN_AGE || totalYearsOfService >= MIN_YEARS_OF_SERVICE;
     }
 }
@@ -19,15 +19,39 @@ public enum MessageCode {
 
     // Retirement/eligibility errors
     NOT_ELIGIBLE("Not eligible for retirement - must be 65+ years old OR have 40+ years of service"),
-    RETIREMENT_BEFORE_EMPLOYMENT("Retirement date is before employment start date");
+    RETIREMENT_BEFORE_EMPLOYMENT("Retirement date is before employment start date",
+        "Policy ", " has retirement date before employment start date"),
+
+    // Projection errors
+    INVALID_DATE_RANGE("Projection end date must be after projection start date"),
+    PROJECTION_BEFORE_EMPLOYMENT("Projection start date is before employment start date"),
+    TOO_MANY_PROJECTIONS("Projection has too many dates for the number of policies",
+        "Projection exceeds ", " projected pensions (policies times projection dates)");
 
     private final String defaultMessage;
+    private final String argumentPrefix;
+    private final String argumentSuffix;
 
     MessageCode(String defaultMessage) {
+        this(defaultMessage, null, null);
+    }
+
+    MessageCode(String defaultMessage, String argumentPrefix, String argumentSuffix) {
         this.defaultMessage = defaultMessage;
+        this.argumentPrefix = argumentPrefix;
+        this.argumentSuffix = argumentSuffix;
     }
 
     public String getDefaultMessage() {
         return defaultMessage;
     }
+
+    /**
+     * The message for {@code argument}, or the default message when there is none or the code takes none.
+     */
+    public String format(String argument) {
+        return argument == null || argumentPrefix == null
+            ? defaultMessage
+            : argumentPrefix + argument + argumentSuffix;
+    }
 }
@@ -0,0 +1,78 @@
+package flyt.inschool.validation;
+
+import flyt.inschool.api.dto.CalculationMessage;
+import flyt.inschool.api.dto.MessageLevel;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+/**
+ * The first {@code size} messages of a {@link ValidationContext}, read in place from its arrays. The context only
+ * ever appends, so a log stays valid while the context goes on and can be shared between threads once published.
+ * Message ids are positions; texts are formatted from the code and its argument when read.
+ */
+public final class MessageLog extends AbstractList<CalculationMessage> implements RandomAccess {
+
+    static final MessageLog EMPTY = new MessageLog(new byte[0], new byte[0], new String[0], 0);
+
+    private static final MessageCode[] CODES = MessageCode.values();
+    private static final MessageLevel[] LEVELS = MessageLevel.values();
+
+    private final byte[] codes;
+    private final byte[] levels;
+    private final String[] arguments;
+    private final int size;
+
+    MessageLog(byte[] codes, byte[] levels, String[] arguments, int size) {
+        this.codes = codes;
+        this.levels = levels;
+        this.arguments = arguments;
+        this.size = size;
+    }
+
+    public MessageCode code(int id) {
+        return CODES[codeOrdinal(id)];
+    }
+
+    public int codeOrdinal(int id) {
+        return codes[id];
+    }
+
+    public MessageLevel level(int id) {
+        return LEVELS[levelOrdinal(id)];
+    }
+
+    public int levelOrdinal(int id) {
+        return levels[id];
+    }
+
+    /**
+     * The argument the message was added with, or {@code null} for the code's default message.
+     */
+    public String argument(int id) {
+        return arguments[id];
+    }
+
+    public String message(int id) {
+        return code(id).format(arguments[id]);
+    }
+
+    void copyTo(byte[] codes, byte[] levels, String[] arguments, int offset) {
+        System.arraycopy(this.codes, 0, codes, offset, size);
+        System.arraycopy(this.levels, 0, levels, offset, size);
+        System.arraycopy(this.arguments, 0, arguments, offset, size);
+    }
+
+    @Override
+    public CalculationMessage get(int id) {
+        if (id < 0 || id >= size) {
+            throw new IndexOutOfBoundsException(id);
+        }
+        return new CalculationMessage(id, level(id), code(id).name(), message(id));
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+}
@@ -1,32 +1,75 @@
 package flyt.inschool.validation;
 
-import flyt.inschool.api.dto.CalculationMessage;
 import flyt.inschool.api.dto.MessageLevel;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 
+/**
+ * Messages are kept as code and level ordinals plus an optional argument, in arrays that are only appended to;
+ * {@link #getMessages()} reads them in place, and texts are formatted when the response is written.
+ */
 public class ValidationContext {
-    private final List<CalculationMessage> messages = new ArrayList<>();
+    private static final int INITIAL_CAPACITY = 8;
+
+    private byte[] codes = new byte[0];
+    private byte[] levels = new byte[0];
+    private String[] arguments = new String[0];
+    private int size;
     private boolean hasCriticalError = false;
 
-    public void addCritical(MessageCode code, String message) {
-        int id = messages.size();
-        messages.add(new CalculationMessage(id, MessageLevel.CRITICAL, code.name(), message));
+    /**
+     * @param argument formatted into the code's message, or {@code null} for its default message
+     */
+    public void addCritical(MessageCode code, String argument) {
+        add(code, MessageLevel.CRITICAL, argument);
         hasCriticalError = true;
     }
 
     public void addCritical(MessageCode code) {
-        addCritical(code, code.getDefaultMessage());
+        addCritical(code, null);
     }
 
-    public void addWarning(MessageCode code, String message) {
-        int id = messages.size();
-        messages.add(new CalculationMessage(id, MessageLevel.WARNING, code.name(), message));
+    /**
+     * @param argument formatted into the code's message, or {@code null} for its default message
+     */
+    public void addWarning(MessageCode code, String argument) {
+        add(code, MessageLevel.WARNING, argument);
     }
 
     public void addWarning(MessageCode code) {
-        addWarning(code, code.getDefaultMessage());
+        addWarning(code, null);
+    }
+
+    private void add(MessageCode code, MessageLevel level, String argument) {
+        ensureCapacity(size + 1);
+        codes[size] = (byte) code.ordinal();
+        levels[size] = (byte) level.ordinal();
+        arguments[size] = argument;
+        size++;
+    }
+
+    /**
+     * Re-adds the messages of an earlier, identical calculation; ids are positions, so messages must be replayed
+     * in order from the start.
+     */
+    public void replay(MessageLog messages) {
+        ensureCapacity(size + messages.size());
+        messages.copyTo(codes, levels, arguments, size);
+        size += messages.size();
+        for (int i = 0; i < messages.size(); i++) {
+            if (messages.level(i) == MessageLevel.CRITICAL) {
+                hasCriticalError = true;
+            }
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > codes.length) {
+            int length = Math.max(capacity, Math.max(INITIAL_CAPACITY, codes.length * 2));
+            codes = Arrays.copyOf(codes, length);
+            levels = Arrays.copyOf(levels, length);
+            arguments = Arrays.copyOf(arguments, length);
+        }
     }
 
     public boolean shouldHalt() {
@@ -37,11 +80,14 @@ public class ValidationContext {
         return hasCriticalError;
     }
 
-    public List<CalculationMessage> getMessages() {
-        return messages;
+    /**
+     * The messages added so far; later additions do not show in the returned log.
+     */
+    public MessageLog getMessages() {
+        return size == 0 ? MessageLog.EMPTY : new MessageLog(codes, levels, arguments, size);
     }
 
     public int getMessageCount() {
-        return messages.size();
+        return size;
     }
 }
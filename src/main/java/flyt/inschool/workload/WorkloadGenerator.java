@@ -0,0 +1,281 @@
+package flyt.inschool.workload;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import flyt.inschool.util.EpochDays;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Writes seeded corpora of calculation requests, one JSON request per line, shaped like production traffic: a
+ * dossier per request with a log-uniformly distributed number of policies (most dossiers small, a few very large),
+ * indexations interleaved with the policies and a retirement calculation at the end. The same profile and seed
+ * always give the same corpus.
+ */
+public final class WorkloadGenerator {
+
+    private static final int FIRST_START_DAY = EpochDays.of(1980, 1, 1);
+    private static final int LAST_START_DAY = EpochDays.of(2024, 12, 31);
+    private static final int RETIREMENT_DAY = EpochDays.of(2025, 7, 1);
+    // Eligible by age on the retirement date
+    private static final int FIRST_BIRTH_DAY = EpochDays.of(1945, 1, 1);
+    private static final int LAST_BIRTH_DAY = EpochDays.of(1960, 6, 30);
+    // Neither old enough nor long enough in service
+    private static final int FIRST_YOUNG_BIRTH_DAY = EpochDays.of(1980, 1, 1);
+    private static final int LAST_YOUNG_BIRTH_DAY = EpochDays.of(1990, 12, 31);
+    private static final int FIRST_INDEXATION_DAY = EpochDays.of(2020, 1, 1);
+    private static final int LAST_INDEXATION_DAY = EpochDays.of(2024, 12, 31);
+    private static final double[] PART_TIME_FACTORS = {1.0, 1.0, 1.0, 0.8, 0.6, 0.5};
+
+    private static final JsonFactory JSON = new JsonFactory();
+
+    /**
+     * @param policiesMin             fewest policies per dossier
+     * @param policiesMax             most policies per dossier
+     * @param schemes                 distinct scheme ids, used uniformly
+     * @param duplicateRate           share of policies repeating the scheme and start date of an earlier one
+     * @param indexationsPerRequest   mean number of indexations per request
+     * @param filteredIndexationShare share of indexations with a scheme or {@code effective_before} filter
+     * @param filterSelectivity       share of policies an {@code effective_before} filter matches; scheme filters
+     *                                match about {@code 1 / schemes}
+     * @param errorRate               share of requests ending in a CRITICAL message: a negative salary, a missing
+     *                                dossier or a participant not yet eligible for retirement
+     */
+    public record Profile(
+        long seed,
+        int policiesMin,
+        int policiesMax,
+        int schemes,
+        double duplicateRate,
+        double indexationsPerRequest,
+        double filteredIndexationShare,
+        double filterSelectivity,
+        double errorRate
+    ) {
+        public static final Profile DEFAULT = new Profile(1, 1, 2000, 20, 0.01, 3.0, 0.5, 0.3, 0.05);
+
+        public Profile {
+            if (policiesMin < 1 || policiesMax < policiesMin) {
+                throw new IllegalArgumentException("Need 1 <= policies-min <= policies-max");
+            }
+            if (schemes < 1) {
+                throw new IllegalArgumentException("schemes must be at least 1");
+            }
+            if (indexationsPerRequest < 0) {
+                throw new IllegalArgumentException("indexations must not be negative");
+            }
+            requireShare("duplicate-rate", duplicateRate);
+            requireShare("filtered-share", filteredIndexationShare);
+            requireShare("filter-selectivity", filterSelectivity);
+            requireShare("error-rate", errorRate);
+        }
+
+        /**
+         * {@link #DEFAULT} overridden by {@code name=value} arguments, e.g. {@code policies-max=500}.
+         */
+        public static Profile parse(List<String> arguments) {
+            Map<String, String> values = new HashMap<>();
+            for (String argument : arguments) {
+                int separator = argument.indexOf('=');
+                if (separator < 0) {
+                    throw new IllegalArgumentException("Expected name=value, got " + argument);
+                }
+                values.put(argument.substring(0, separator), argument.substring(separator + 1));
+            }
+            Profile profile = new Profile(
+                parse(values.remove("seed"), DEFAULT.seed(), Long::parseLong),
+                parse(values.remove("policies-min"), DEFAULT.policiesMin(), Integer::parseInt),
+                parse(values.remove("policies-max"), DEFAULT.policiesMax(), Integer::parseInt),
+                parse(values.remove("schemes"), DEFAULT.schemes(), Integer::parseInt),
+                parse(values.remove("duplicate-rate"), DEFAULT.duplicateRate(), Double::parseDouble),
+                parse(values.remove("indexations"), DEFAULT.indexationsPerRequest(), Double::parseDouble),
+                parse(values.remove("filtered-share"), DEFAULT.filteredIndexationShare(), Double::parseDouble),
+                parse(values.remove("filter-selectivity"), DEFAULT.filterSelectivity(), Double::parseDouble),
+                parse(values.remove("error-rate"), DEFAULT.errorRate(), Double::parseDouble)
+            );
+            if (!values.isEmpty()) {
+                throw new IllegalArgumentException("Unknown workload parameters " + values.keySet());
+            }
+            return profile;
+        }
+
+        private static <T> T parse(String value, T defaultValue, Function<String, T> parser) {
+            return value != null ? parser.apply(value) : defaultValue;
+        }
+
+        private static void requireShare(String name, double value) {
+            if (!(value >= 0 && value <= 1)) {
+                throw new IllegalArgumentException(name + " must be between 0 and 1");
+            }
+        }
+    }
+
+    private enum Failure { NONE, INVALID_SALARY, DOSSIER_NOT_FOUND, NOT_ELIGIBLE }
+
+    private final Profile profile;
+    private final SplittableRandom random;
+    private final String[] schemeIds;
+
+    public WorkloadGenerator(Profile profile) {
+        this.profile = profile;
+        this.random = new SplittableRandom(profile.seed());
+        this.schemeIds = new String[profile.schemes()];
+        for (int i = 0; i < schemeIds.length; i++) {
+            schemeIds[i] = String.format("SCHEME-%04d", i + 1);
+        }
+    }
+
+    /**
+     * Writes the next {@code count} requests as newline-delimited JSON.
+     */
+    public void write(long count, OutputStream out) throws IOException {
+        try (JsonGenerator generator = JSON.createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            for (long i = 0; i < count; i++) {
+                writeRequest(generator);
+                generator.writeRaw('\n');
+            }
+        }
+    }
+
+    private void writeRequest(JsonGenerator generator) throws IOException {
+        Failure failure = random.nextDouble() < profile.errorRate()
+            ? Failure.values()[1 + random.nextInt(Failure.values().length - 1)]
+            : Failure.NONE;
+        int policyCount = policyCount();
+        String dossierId = uuid();
+
+        // Employment start dates first, as the retirement date of a failing request depends on them
+        int[] schemes = new int[policyCount];
+        int[] startDays = new int[policyCount];
+        for (int i = 0; i < policyCount; i++) {
+            if (i > 0 && random.nextDouble() < profile.duplicateRate()) {
+                int original = random.nextInt(i);
+                schemes[i] = schemes[original];
+                startDays[i] = startDays[original];
+            } else {
+                schemes[i] = random.nextInt(schemeIds.length);
+                startDays[i] = FIRST_START_DAY + random.nextInt(LAST_START_DAY - FIRST_START_DAY + 1);
+            }
+        }
+        // Indexations go in after a random policy each, in order
+        int[] indexationsAfter = new int[indexationCount()];
+        for (int i = 0; i < indexationsAfter.length; i++) {
+            indexationsAfter[i] = random.nextInt(policyCount);
+        }
+        Arrays.sort(indexationsAfter);
+        int invalidSalaryPolicy = failure == Failure.INVALID_SALARY ? random.nextInt(policyCount) : -1;
+
+        generator.writeStartObject();
+        generator.writeStringField("tenant_id", "tenant-" + random.nextInt(10));
+        generator.writeObjectFieldStart("calculation_instructions");
+        generator.writeArrayFieldStart("mutations");
+
+        if (failure != Failure.DOSSIER_NOT_FOUND) {
+            int birthDay = failure == Failure.NOT_ELIGIBLE
+                ? FIRST_YOUNG_BIRTH_DAY + random.nextInt(LAST_YOUNG_BIRTH_DAY - FIRST_YOUNG_BIRTH_DAY + 1)
+                : FIRST_BIRTH_DAY + random.nextInt(LAST_BIRTH_DAY - FIRST_BIRTH_DAY + 1);
+            startMutation(generator, "create_dossier", "DOSSIER_CREATION", null, FIRST_START_DAY);
+            generator.writeStringField("dossier_id", dossierId);
+            generator.writeStringField("person_id", uuid());
+            generator.writeStringField("name", "Participant " + random.nextInt(1_000_000));
+            generator.writeStringField("birth_date", EpochDays.format(birthDay));
+            endMutation(generator);
+        }
+
+        int nextIndexation = 0;
+        for (int i = 0; i < policyCount; i++) {
+            startMutation(generator, "add_policy", "DOSSIER", dossierId, startDays[i]);
+            generator.writeStringField("scheme_id", schemeIds[schemes[i]]);
+            generator.writeStringField("employment_start_date", EpochDays.format(startDays[i]));
+            int salary = 20_000 + random.nextInt(100_001);
+            generator.writeNumberField("salary", i == invalidSalaryPolicy ? -salary : salary);
+            generator.writeNumberField("part_time_factor",
+                PART_TIME_FACTORS[random.nextInt(PART_TIME_FACTORS.length)]);
+            endMutation(generator);
+
+            while (nextIndexation < indexationsAfter.length && indexationsAfter[nextIndexation] == i) {
+                writeIndexation(generator, dossierId,
+                    FIRST_INDEXATION_DAY + random.nextInt(LAST_INDEXATION_DAY - FIRST_INDEXATION_DAY + 1));
+                nextIndexation++;
+            }
+        }
+
+        // Retiring before any employment started leaves no years of service
+        int retirementDay = RETIREMENT_DAY;
+        if (failure == Failure.NOT_ELIGIBLE) {
+            retirementDay = Arrays.stream(startDays).min().orElseThrow() - 1;
+        }
+        startMutation(generator, "calculate_retirement_benefit", "DOSSIER", dossierId, retirementDay);
+        generator.writeStringField("retirement_date", EpochDays.format(retirementDay));
+        endMutation(generator);
+
+        generator.writeEndArray();
+        generator.writeEndObject();
+        generator.writeEndObject();
+    }
+
+    private void writeIndexation(JsonGenerator generator, String dossierId, int day) throws IOException {
+        startMutation(generator, "apply_indexation", "DOSSIER", dossierId, day);
+        generator.writeNumberField("percentage", (5 + random.nextInt(46)) / 1000.0);
+        if (random.nextDouble() < profile.filteredIndexationShare()) {
+            if (random.nextBoolean()) {
+                generator.writeStringField("scheme_id", schemeIds[random.nextInt(schemeIds.length)]);
+            } else {
+                int cutoff = FIRST_START_DAY
+                    + (int) Math.round(profile.filterSelectivity() * (LAST_START_DAY - FIRST_START_DAY + 1));
+                generator.writeStringField("effective_before", EpochDays.format(cutoff));
+            }
+        }
+        endMutation(generator);
+    }
+
+    private void startMutation(JsonGenerator generator, String definitionName, String type, String dossierId,
+                               int actualAtDay) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("mutation_id", uuid());
+        generator.writeStringField("mutation_definition_name", definitionName);
+        generator.writeStringField("mutation_type", type);
+        generator.writeStringField("actual_at", EpochDays.format(actualAtDay));
+        if (dossierId != null) {
+            generator.writeStringField("dossier_id", dossierId);
+        }
+        generator.writeObjectFieldStart("mutation_properties");
+    }
+
+    private static void endMutation(JsonGenerator generator) throws IOException {
+        generator.writeEndObject();
+        generator.writeEndObject();
+    }
+
+    private int policyCount() {
+        double logMin = Math.log(profile.policiesMin());
+        double logMax = Math.log(profile.policiesMax() + 1.0);
+        int count = (int) Math.exp(logMin + random.nextDouble() * (logMax - logMin));
+        return Math.clamp(count, profile.policiesMin(), profile.policiesMax());
+    }
+
+    /**
+     * Spread evenly over {@code 0 .. 2 * mean}, so the mean is as configured.
+     */
+    private int indexationCount() {
+        double mean = profile.indexationsPerRequest();
+        double count = random.nextDouble() * 2 * mean;
+        return (int) count + (random.nextDouble() < count - Math.floor(count) ? 1 : 0);
+    }
+
+    private String uuid() {
+        long high = (random.nextLong() & 0xFFFF_FFFF_FFFF_0FFFL) | 0x4000L;
+        long low = (random.nextLong() & 0x3FFF_FFFF_FFFF_FFFFL) | 0x8000_0000_0000_0000L;
+        return new UUID(high, low).toString();
+    }
+}
@@ -0,0 +1,89 @@
+package flyt.inschool.api;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.github.fge.jsonpatch.JsonPatch;
+import com.github.fge.jsonpatch.JsonPatchException;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import jakarta.inject.Inject;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Applies the JSON patches of every test-cases fixture's response with json-patch: each forward patch must take
+ * the situation before its mutation to the one after it, each backward patch must take it back, and the forward
+ * patches together must lead from the initial to the end situation.
+ */
+@QuarkusTest
+class PatchRoundTripTest {
+
+    // Numbers are compared by value: 50000 and 50000.0 are the same salary
+    private static final Comparator<JsonNode> SAME_VALUE = (a, b) -> a.isNumber() && b.isNumber()
+        ? a.decimalValue().compareTo(b.decimalValue())
+        : a.equals(b) ? 0 : 1;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    static Stream<Path> fixtures() throws IOException {
+        List<Path> fixtures;
+        try (Stream<Path> files = Files.list(Path.of("test-cases"))) {
+            fixtures = files.filter(file -> file.toString().endsWith(".json")).sorted().toList();
+        }
+        assertFalse(fixtures.isEmpty(), "No fixtures in test-cases");
+        return fixtures.stream();
+    }
+
+    @ParameterizedTest
+    @MethodSource("fixtures")
+    void patchesRoundTrip(Path fixture) throws IOException, JsonPatchException {
+        JsonNode request = objectMapper.readTree(fixture.toFile()).get("request");
+        String body = given()
+            .contentType(ContentType.JSON)
+            .body(objectMapper.writeValueAsString(request))
+            .when().post("/calculation-requests")
+            .then().statusCode(200)
+            .extract().asString();
+        JsonNode result = objectMapper.readTree(body).get("calculation_result");
+
+        JsonNode situation = situation(result.get("initial_situation"));
+        JsonNode mutations = result.get("mutations");
+        for (int i = 0; i < mutations.size(); i++) {
+            JsonNode mutation = mutations.get(i);
+            JsonNode forward = mutation.get("forward_patch_to_situation_after_this_mutation");
+            JsonNode backward = mutation.get("backward_patch_to_previous_situation");
+            assertTrue(forward != null && backward != null, "Mutation " + i + " has no patches");
+
+            JsonNode after = JsonPatch.fromJson(forward).apply(situation);
+            JsonNode before = JsonPatch.fromJson(backward).apply(after);
+            assertSameSituation(situation, before,
+                "Backward patch of mutation " + i + " does not undo its forward patch");
+            situation = after;
+        }
+        assertSameSituation(situation(result.get("end_situation")), situation,
+            "Forward patches do not lead to the end situation");
+    }
+
+    private static JsonNode situation(JsonNode snapshot) {
+        JsonNode situation = snapshot.get("situation");
+        return situation != null ? situation : JsonNodeFactory.instance.objectNode();
+    }
+
+    private static void assertSameSituation(JsonNode expected, JsonNode actual, String message) {
+        assertTrue(expected.equals(SAME_VALUE, actual),
+            () -> message + "\nexpected: " + expected + "\nactual:   " + actual);
+    }
+}
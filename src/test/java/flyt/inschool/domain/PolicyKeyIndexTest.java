@@ -0,0 +1,107 @@
+package flyt.inschool.domain;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Dossiers along one chain share an index, each seeing only the keys of its own first {@code n} policies; a
+ * dossier appending behind the tip of the chain, or forked for a new owner, must get a copy of what it sees.
+ */
+class PolicyKeyIndexTest {
+
+    private static long key(int i) {
+        return PolicyKeyIndex.key(i % 3, 10_000 + i);
+    }
+
+    private static PolicyKeyIndex indexOf(int count) {
+        PolicyKeyIndex index = PolicyKeyIndex.empty();
+        for (int i = 0; i < count; i++) {
+            index = index.append(key(i), i);
+        }
+        return index;
+    }
+
+    @Test
+    void keysAreVisibleFromTheirPolicyOn() {
+        PolicyKeyIndex index = indexOf(5);
+        for (int i = 0; i < 5; i++) {
+            assertFalse(index.contains(key(i), i), "key " + i + " before its policy");
+            assertTrue(index.contains(key(i), i + 1), "key " + i + " from its policy on");
+        }
+        assertFalse(index.contains(key(5), 6));
+    }
+
+    @Test
+    void duplicateKeepsThePositionOfTheFirstPolicy() {
+        PolicyKeyIndex index = indexOf(3).append(key(1), 3);
+        assertTrue(index.contains(key(1), 2));
+    }
+
+    @Test
+    void tipAppendsInPlace() {
+        PolicyKeyIndex index = indexOf(5);
+        assertSame(index, index.append(key(5), 5));
+    }
+
+    @Test
+    void forkAndOriginalOnlySeeTheirOwnAppends() {
+        PolicyKeyIndex original = indexOf(5);
+        PolicyKeyIndex fork = original.fork(5);
+        assertNotSame(original, fork);
+
+        long originalKey = PolicyKeyIndex.key(7, 1);
+        long forkKey = PolicyKeyIndex.key(8, 2);
+        original = original.append(originalKey, 5);
+        fork = fork.append(forkKey, 5);
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(original.contains(key(i), 6));
+            assertTrue(fork.contains(key(i), 6));
+        }
+        assertTrue(original.contains(originalKey, 6));
+        assertFalse(original.contains(forkKey, 6));
+        assertTrue(fork.contains(forkKey, 6));
+        assertFalse(fork.contains(originalKey, 6));
+    }
+
+    @Test
+    void staleDossierAppendingCopiesItsPrefix() {
+        PolicyKeyIndex shared = indexOf(5);
+        PolicyKeyIndex tip = shared.append(key(5), 5);
+
+        // A dossier still holding 3 policies appends behind the tip
+        long staleKey = PolicyKeyIndex.key(9, 3);
+        PolicyKeyIndex stale = shared.append(staleKey, 3);
+        assertNotSame(tip, stale);
+
+        assertTrue(stale.contains(staleKey, 4));
+        assertTrue(stale.contains(key(2), 4));
+        assertFalse(stale.contains(key(3), 4));
+        assertFalse(stale.contains(key(3), 6), "keys past the stale prefix must not be copied");
+        assertFalse(tip.contains(staleKey, 6));
+        assertTrue(tip.contains(key(5), 6));
+    }
+
+    @Test
+    void rehashKeepsKeysAndVisibility() {
+        int count = 100;
+        PolicyKeyIndex index = indexOf(count);
+        for (int i = 0; i < count; i++) {
+            assertTrue(index.contains(key(i), count), "key " + i);
+            assertFalse(index.contains(key(i), i), "key " + i + " before its policy");
+        }
+
+        PolicyKeyIndex fork = index.fork(20);
+        for (int i = 0; i < count; i++) {
+            assertEquals(i < 20, fork.contains(key(i), count), "key " + i + " in a fork at 20");
+        }
+        fork = fork.append(key(50), 20);
+        assertTrue(fork.contains(key(50), 21));
+        assertFalse(index.contains(key(50), 21), "the fork must not write into the original");
+    }
+}
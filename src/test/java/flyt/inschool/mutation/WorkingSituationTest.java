@@ -0,0 +1,78 @@
+package flyt.inschool.mutation;
+
+import flyt.inschool.domain.Person;
+import flyt.inschool.domain.PersonRole;
+import flyt.inschool.domain.Situation;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A calculation resumed from a snapshot, as from the prefix cache, must detect duplicate policies exactly as the
+ * calculation that took the snapshot, while neither sees the policies the other adds afterwards.
+ */
+class WorkingSituationTest {
+
+    private static final int START_DAY = 10_000;
+
+    private static WorkingSituation withPolicies(int count) {
+        WorkingSituation situation = new WorkingSituation();
+        situation.createDossier("dossier", new Person("person", PersonRole.PARTICIPANT, "Name",
+            LocalDate.of(1960, 1, 1)));
+        for (int i = 0; i < count; i++) {
+            addPolicy(situation, i);
+        }
+        return situation;
+    }
+
+    private static void addPolicy(WorkingSituation situation, int i) {
+        situation.policies().add("policy-" + i, scheme(i), START_DAY + i, 50_000, 1);
+    }
+
+    private static String scheme(int i) {
+        return "SCHEME-" + i % 3;
+    }
+
+    @Test
+    void resumedSituationDetectsDuplicates() {
+        // Past the index's initial 16 slots, so the snapshot's index has been rehashed
+        Situation snapshot = withPolicies(40).snapshot();
+        WorkingSituation resumed = WorkingSituation.from(snapshot);
+
+        PolicyTable policies = resumed.policies();
+        assertEquals(40, policies.size());
+        for (int i = 0; i < 40; i++) {
+            assertTrue(policies.contains(scheme(i), START_DAY + i), "policy " + i);
+        }
+        assertFalse(policies.contains(scheme(0), START_DAY + 1));
+        assertFalse(policies.contains("SCHEME-UNKNOWN", START_DAY));
+    }
+
+    @Test
+    void resumedAndOriginalOnlySeeTheirOwnPolicies() {
+        WorkingSituation original = withPolicies(20);
+        Situation snapshot = original.snapshot();
+        WorkingSituation resumed = WorkingSituation.from(snapshot);
+        WorkingSituation resumedAgain = WorkingSituation.from(snapshot);
+
+        original.policies().add("original", "SCHEME-ORIGINAL", START_DAY, 50_000, 1);
+        resumed.policies().add("resumed", "SCHEME-0", START_DAY - 1, 50_000, 1);
+
+        assertTrue(original.policies().contains("SCHEME-ORIGINAL", START_DAY));
+        assertFalse(original.policies().contains("SCHEME-0", START_DAY - 1));
+        assertTrue(resumed.policies().contains("SCHEME-0", START_DAY - 1));
+        assertFalse(resumed.policies().contains("SCHEME-ORIGINAL", START_DAY));
+        assertFalse(resumedAgain.policies().contains("SCHEME-0", START_DAY - 1));
+        assertFalse(resumedAgain.policies().contains("SCHEME-ORIGINAL", START_DAY));
+
+        // The snapshot itself is untouched and can still be resumed from
+        WorkingSituation later = WorkingSituation.from(snapshot);
+        assertEquals(20, later.policyCount());
+        assertFalse(later.policies().contains("SCHEME-0", START_DAY - 1));
+        assertTrue(later.policies().contains(scheme(19), START_DAY + 19));
+    }
+}
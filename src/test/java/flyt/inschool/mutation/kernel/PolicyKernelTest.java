@@ -0,0 +1,135 @@
+package flyt.inschool.mutation.kernel;
+
+import jdk.incubator.vector.DoubleVector;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The vector kernel must give bit-identical results to the scalar one for every row count, including counts that
+ * leave rows after the last whole vector for the tail loops, and must not touch rows past the count.
+ */
+class PolicyKernelTest {
+
+    private static final int LANES = DoubleVector.SPECIES_PREFERRED.length();
+    private static final int CAPACITY = 1_100;
+    private static final int SCHEMES = 3;
+
+    private final PolicyKernel scalar = new ScalarPolicyKernel();
+    private final PolicyKernel vector = new VectorPolicyKernel();
+
+    private static int[] counts() {
+        return IntStream.concat(IntStream.rangeClosed(0, 4 * LANES + 1), IntStream.of(1_000, 1_000 + LANES - 1))
+            .toArray();
+    }
+
+    @Test
+    void applyIndexationMatchesScalar() {
+        Random random = new Random(1);
+        for (int count : counts()) {
+            for (double factor : new double[]{1.03, 0.97, -0.5}) {
+                for (boolean filterByScheme : new boolean[]{false, true}) {
+                    for (int effectiveBeforeDay : new int[]{Integer.MAX_VALUE, 10_000}) {
+                        Columns columns = Columns.random(random);
+                        Columns expected = columns.copy();
+                        long[] expectedRows = new long[(CAPACITY + 63) / 64];
+                        long[] actualRows = new long[expectedRows.length];
+                        String label = "count " + count + ", factor " + factor + ", scheme filter " + filterByScheme
+                            + ", effective before " + effectiveBeforeDay;
+
+                        PolicyKernel.IndexationResult expectedResult = scalar.applyIndexation(expected.salaries,
+                            expected.schemeOrdinals, expected.employmentStartDays, count, filterByScheme, 1,
+                            effectiveBeforeDay, factor, expectedRows);
+                        PolicyKernel.IndexationResult actualResult = vector.applyIndexation(columns.salaries,
+                            columns.schemeOrdinals, columns.employmentStartDays, count, filterByScheme, 1,
+                            effectiveBeforeDay, factor, actualRows);
+
+                        assertEquals(expectedResult, actualResult, label);
+                        assertBitIdentical(expected.salaries, columns.salaries, label);
+                        for (int word = 0; word < expectedRows.length; word++) {
+                            assertEquals(expectedRows[word], actualRows[word], label + ", matched rows word " + word);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void effectiveSalariesMatchScalar() {
+        Random random = new Random(2);
+        for (int count : counts()) {
+            Columns columns = Columns.random(random);
+            double[] expected = filler(random);
+            double[] actual = expected.clone();
+
+            scalar.effectiveSalaries(columns.salaries, columns.partTimeFactors, expected, count);
+            vector.effectiveSalaries(columns.salaries, columns.partTimeFactors, actual, count);
+
+            assertBitIdentical(expected, actual, "count " + count);
+        }
+    }
+
+    @Test
+    void distributePensionMatchesScalar() {
+        Random random = new Random(3);
+        for (int count : counts()) {
+            double[] years = new double[CAPACITY];
+            double totalYears = 0;
+            for (int i = 0; i < CAPACITY; i++) {
+                years[i] = random.nextDouble() * 45;
+                totalYears += i < count ? years[i] : 0;
+            }
+            double annualPension = random.nextDouble() * 60_000;
+            double[] expected = filler(random);
+            double[] actual = expected.clone();
+
+            scalar.distributePension(years, totalYears, annualPension, expected, count);
+            vector.distributePension(years, totalYears, annualPension, actual, count);
+
+            assertBitIdentical(expected, actual, "count " + count);
+        }
+    }
+
+    /**
+     * Compares raw bits over the whole array, so rows past the count must be left as they were.
+     */
+    private static void assertBitIdentical(double[] expected, double[] actual, String label) {
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(Double.doubleToRawLongBits(expected[i]), Double.doubleToRawLongBits(actual[i]),
+                label + ", row " + i + ": " + expected[i] + " vs " + actual[i]);
+        }
+    }
+
+    private static double[] filler(Random random) {
+        double[] values = new double[CAPACITY];
+        for (int i = 0; i < CAPACITY; i++) {
+            values[i] = random.nextDouble();
+        }
+        return values;
+    }
+
+    private record Columns(double[] salaries, double[] partTimeFactors, int[] schemeOrdinals,
+                           int[] employmentStartDays) {
+
+        static Columns random(Random random) {
+            Columns columns = new Columns(new double[CAPACITY], new double[CAPACITY], new int[CAPACITY],
+                new int[CAPACITY]);
+            for (int i = 0; i < CAPACITY; i++) {
+                columns.salaries[i] = random.nextInt(10) == 0 ? 0 : random.nextDouble() * 150_000 - 10_000;
+                columns.partTimeFactors[i] = random.nextDouble();
+                columns.schemeOrdinals[i] = random.nextInt(SCHEMES);
+                columns.employmentStartDays[i] = 5_000 + random.nextInt(10_000);
+            }
+            return columns;
+        }
+
+        Columns copy() {
+            return new Columns(salaries.clone(), partTimeFactors.clone(), schemeOrdinals.clone(),
+                employmentStartDays.clone());
+        }
+    }
+}
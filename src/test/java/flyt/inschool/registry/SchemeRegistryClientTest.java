@@ -0,0 +1,139 @@
+package flyt.inschool.registry;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Runs the client against a local stub registry that answers after 50 ms, or after 3 s for schemes marked slow.
+ */
+class SchemeRegistryClientTest {
+
+    private static final long DELAY_MILLIS = 50;
+    private static final long SLOW_DELAY_MILLIS = 3_000;
+
+    private final Map<String, AtomicInteger> calls = new ConcurrentHashMap<>();
+    private final Map<String, Boolean> slowSchemes = new ConcurrentHashMap<>();
+
+    private ExecutorService serverThreads;
+    private HttpServer server;
+    private SchemeRegistryClient client;
+
+    @BeforeEach
+    void start() throws IOException {
+        serverThreads = Executors.newCachedThreadPool();
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/schemes/", this::answer);
+        server.setExecutor(serverThreads);
+        server.start();
+
+        client = new SchemeRegistryClient();
+        client.url = Optional.of("http://127.0.0.1:" + server.getAddress().getPort());
+        client.timeout = Duration.ofSeconds(2);
+        client.cacheTtl = Duration.ofMinutes(5);
+        client.cacheMaxSize = 100;
+        client.objectMapper = new ObjectMapper();
+        client.init();
+    }
+
+    @AfterEach
+    void stop() {
+        client.close();
+        server.stop(0);
+        serverThreads.shutdownNow();
+    }
+
+    private void answer(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        String schemeId = path.substring(path.lastIndexOf('/') + 1);
+        calls.computeIfAbsent(schemeId, id -> new AtomicInteger()).incrementAndGet();
+        try {
+            Thread.sleep(slowSchemes.getOrDefault(schemeId, false) ? SLOW_DELAY_MILLIS : DELAY_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        byte[] body = ("{\"scheme_id\":\"" + schemeId + "\",\"accrual_rate\":0.025}")
+            .getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private int calls(String schemeId) {
+        AtomicInteger count = calls.get(schemeId);
+        return count != null ? count.get() : 0;
+    }
+
+    @Test
+    void concurrentLookupsOfOneSchemeMakeOneCall() throws InterruptedException {
+        int threads = 16;
+        CountDownLatch ready = new CountDownLatch(threads);
+        CountDownLatch go = new CountDownLatch(1);
+        List<CompletableFuture<Double>> lookups = new ArrayList<>();
+        List<Thread> callers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            CompletableFuture<Double> lookup = new CompletableFuture<>();
+            lookups.add(lookup);
+            Thread caller = new Thread(() -> {
+                ready.countDown();
+                try {
+                    go.await();
+                    client.accrualRate("SCHEME-A").thenAccept(lookup::complete);
+                } catch (InterruptedException e) {
+                    lookup.completeExceptionally(e);
+                }
+            });
+            callers.add(caller);
+            caller.start();
+        }
+        ready.await();
+        go.countDown();
+        for (Thread caller : callers) {
+            caller.join();
+        }
+
+        for (CompletableFuture<Double> lookup : lookups) {
+            assertEquals(0.025, lookup.join());
+        }
+        assertEquals(1, calls("SCHEME-A"));
+
+        assertEquals(0.025, client.accrualRate("SCHEME-A").join());
+        assertEquals(1, calls("SCHEME-A"), "A cached rate must not be fetched again");
+    }
+
+    @Test
+    void slowLookupFallsBackWithoutBeingCached() {
+        slowSchemes.put("SCHEME-SLOW", true);
+        assertEquals(SchemeRegistryClient.DEFAULT_ACCRUAL_RATE, client.accrualRate("SCHEME-SLOW").join());
+        assertEquals(1, calls("SCHEME-SLOW"));
+
+        slowSchemes.put("SCHEME-SLOW", false);
+        assertEquals(0.025, client.accrualRate("SCHEME-SLOW").join(), "The fallback must not be cached");
+        assertEquals(2, calls("SCHEME-SLOW"));
+    }
+}
@@ -0,0 +1,156 @@
+package flyt.inschool.util;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Checks the vector against an {@link ArrayList} model around the trie's boundaries: a full tail (32), the first
+ * push of a tail into the root (33), a full two-level root (1056), the first growth to three levels (1057) and a
+ * deeper trie (40000). Every earlier version must stay as it was.
+ */
+class PersistentVectorTest {
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 1, 31, 32, 33, 1056, 1057, 40_000})
+    void appendKeepsEveryVersion(int size) {
+        List<PersistentVector<Integer>> versions = new ArrayList<>();
+        PersistentVector<Integer> vector = PersistentVector.empty();
+        versions.add(vector);
+        for (int i = 0; i < size; i++) {
+            vector = vector.append(i);
+            versions.add(vector);
+        }
+
+        assertMatches(model(size), vector);
+        // Each version holds exactly the elements appended before it
+        for (int length : new int[]{0, 1, 31, 32, 33, 64, 65, 1024, 1056, 1057, size}) {
+            if (length <= size) {
+                assertMatches(model(length), versions.get(length));
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {31, 32, 33, 1056, 1057, 40_000})
+    void appendToAnEarlierVersionBranches(int size) {
+        PersistentVector<Integer> base = PersistentVector.from(model(size));
+        PersistentVector<Integer> left = base.append(-1);
+        PersistentVector<Integer> right = base.append(-2);
+
+        List<Integer> leftModel = model(size);
+        leftModel.add(-1);
+        List<Integer> rightModel = model(size);
+        rightModel.add(-2);
+        assertMatches(model(size), base);
+        assertMatches(leftModel, left);
+        assertMatches(rightModel, right);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {31, 32, 33, 1056, 1057, 40_000})
+    void updateLeavesTheOriginalUnchanged(int size) {
+        PersistentVector<Integer> original = PersistentVector.from(model(size));
+        List<Integer> model = model(size);
+        PersistentVector<Integer> vector = original;
+        for (int index : indexes(size)) {
+            vector = vector.update(index, -index - 1);
+            model.set(index, -index - 1);
+            assertMatches(model, vector);
+        }
+        assertMatches(model(size), original);
+
+        assertThrows(IndexOutOfBoundsException.class, () -> original.update(size, 0));
+        assertThrows(IndexOutOfBoundsException.class, () -> original.update(-1, 0));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {31, 32, 33, 1056, 1057, 40_000})
+    void updaterSetsInPlaceWithoutTouchingTheOriginal(int size) {
+        PersistentVector<Integer> original = PersistentVector.from(model(size));
+        List<Integer> model = model(size);
+        Random random = new Random(size);
+
+        PersistentVector.Updater<Integer> updater = original.updater();
+        // Several sets per node, so nodes copied by this batch are edited in place
+        for (int i = 0; i < size; i++) {
+            int index = random.nextInt(size);
+            updater.set(index, -i - 1);
+            model.set(index, -i - 1);
+        }
+        for (int index : indexes(size)) {
+            updater.set(index, index * 2);
+            model.set(index, index * 2);
+        }
+        PersistentVector<Integer> updated = updater.build();
+
+        assertMatches(model, updated);
+        assertMatches(model(size), original);
+        assertThrows(IllegalStateException.class, () -> updater.set(0, 0));
+
+        // A second batch on the result must not write into the first batch's nodes
+        PersistentVector.Updater<Integer> second = updated.updater();
+        for (int index : indexes(size)) {
+            second.set(index, 7);
+        }
+        second.build();
+        assertMatches(model, updated);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1056, 1057, 40_000})
+    void appendAfterUpdatesKeepsBothVersions(int size) {
+        PersistentVector.Updater<Integer> updater = PersistentVector.from(model(size)).updater();
+        List<Integer> model = model(size);
+        for (int index : indexes(size)) {
+            updater.set(index, -1);
+            model.set(index, -1);
+        }
+        PersistentVector<Integer> updated = updater.build();
+        PersistentVector<Integer> grown = updated;
+        List<Integer> grownModel = new ArrayList<>(model);
+        for (int i = 0; i < 1_100; i++) {
+            grown = grown.append(size + i);
+            grownModel.add(size + i);
+        }
+
+        assertMatches(model, updated);
+        assertMatches(grownModel, grown);
+    }
+
+    private static List<Integer> model(int size) {
+        List<Integer> model = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            model.add(i);
+        }
+        return model;
+    }
+
+    /**
+     * The first and last elements, both sides of every 32 and 1024 boundary and the start of the tail.
+     */
+    private static int[] indexes(int size) {
+        List<Integer> indexes = new ArrayList<>();
+        for (int index : new int[]{0, 1, 30, 31, 32, 33, 1023, 1024, 1025, 1055, 1056, size / 2, size - 33,
+            size - 32, size - 2, size - 1}) {
+            if (index >= 0 && index < size && !indexes.contains(index)) {
+                indexes.add(index);
+            }
+        }
+        return indexes.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static void assertMatches(List<Integer> model, PersistentVector<Integer> vector) {
+        assertEquals(model.size(), vector.size());
+        for (int i = 0; i < model.size(); i++) {
+            assertEquals(model.get(i), vector.get(i), "index " + i);
+        }
+        assertThrows(IndexOutOfBoundsException.class, () -> vector.get(model.size()));
+    }
+}